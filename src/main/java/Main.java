@@ -26,6 +26,7 @@ import java.util.function.Supplier;
 public class Main {
     private static final String DEFAULT_DOCUMENTS_DIRECTORY = "/Users/nick/Downloads/documents";
     private static final String DEFAULT_DISK_INDEX_DIRECTORY = "/Users/nick/Downloads/index";
+    private static final long POSTING_LIST_CACHE_BYTES = 64L << 20;
 
     public static void main(String[] args) {
         index();
@@ -47,18 +48,42 @@ public class Main {
     }
 
     private static void index() {
-        if (getOption("Continue", "Index documents") != 1) return;
-        int option = getOption("Inverted index", "Zone index");
+        int mode = getOption("Continue", "Index documents", "Append documents", "Index documents in shard processes");
+        if (mode == 0) return;
+        int option = getOption("Inverted index", "Zone index", "Positional index", "Biword index");
         String indexDirectory = getLine("Enter a path to the disk index directory (blank for default): ", DEFAULT_DISK_INDEX_DIRECTORY);
         List<Document> documents = loadDocuments();
+        if (mode == 3) {
+            if (option >= 2) {
+                log("Shard processes build inverted and zone indexes only");
+                return;
+            }
+            ShardIndexer shardIndexer = ShardIndexer.builder(indexDirectory)
+                    .zonesCount(option == 1 ? 4 : 1)
+                    .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                    .build();
+            logExecutionTime(() -> shardIndexer.index(documents));
+            return;
+        }
+        IndexingMetrics metrics = new IndexingMetrics();
         SPIMIIndexer indexer = SPIMIIndexer.builder(indexDirectory)
-                .zonesCount(option == 0 ? 1 : 4)
+                .zonesCount(option == 1 ? 4 : 1)
                 .encodedOutputStreamFactory(VBEncodedOutputStream::new)
                 .encodedInputStreamFactory(VBEncodedInputStream::new)
-                .outBlockFactory(DefaultOutBlock::new)
-                .inBlockFactory(DefaultInBlock::new)
+                .outBlockFactory(switch (option) {
+                    case 2 -> PositionalOutBlock::new;
+                    case 3 -> BiWordOutBlock::new;
+                    default -> DefaultPackedOutBlock::new;
+                })
+                .inBlockFactory(option >= 2 ? PositionalInBlock::new : DefaultInBlock::new)
+                .listener(metrics)
+                .resumable(true)
                 .build();
-        logExecutionTime(() -> indexer.index(documents, new DefaultTokenizer()));
+        if (mode == 1)
+            logExecutionTime(() -> indexer.index(documents, new DefaultTokenizer()));
+        else
+            logExecutionTime(() -> indexer.append(documents, new DefaultTokenizer()));
+        log(metrics.toString());
     }
 
     private static void clusterize() {
@@ -120,12 +145,14 @@ public class Main {
 
     private static QueryExecutor executorForOnDiskIndex(Tokenizer tokenizer) {
         String indexDirectory = getLine("Enter a path to the disk index directory (blank for default): ", DEFAULT_DISK_INDEX_DIRECTORY);
-        return switch (getOption("Inverted Index", "Zone Index")) {
+        return switch (getOption("Inverted Index", "Zone Index", "Positional Index", "Biword Index")) {
             case 0 -> {
                 log("Loading disk index...");
                 DefaultOnDiskInvertedIndex index = logExecutionTime(() -> DefaultOnDiskInvertedIndex.builder(indexDirectory)
                         .tokenizer(tokenizer)
                         .encodedInputStreamFactory(VBEncodedInputStream::new)
+                        .memoryMapped(true)
+                        .postingListCache(new LruPostingListCache(POSTING_LIST_CACHE_BYTES))
                         .build()
                 );
                 yield new IndexQueryExecutor(index);
@@ -136,10 +163,34 @@ public class Main {
                         .tokenizer(tokenizer)
                         .zonesCount(4)
                         .encodedInputStreamFactory(VBEncodedInputStream::new)
+                        .memoryMapped(true)
+                        .postingListCache(new LruPostingListCache(POSTING_LIST_CACHE_BYTES))
                         .build()
                 );
                 yield new ZoneIndexQueryExecutor(index, new double[] {0.15, 0.5, 0.1, 0.25});
             }
+            case 2 -> {
+                log("Loading disk index...");
+                PositionalOnDiskInvertedIndex index = logExecutionTime(() -> PositionalOnDiskInvertedIndex.builder(indexDirectory)
+                        .tokenizer(tokenizer)
+                        .encodedInputStreamFactory(VBEncodedInputStream::new)
+                        .memoryMapped(true)
+                        .postingListCache(new LruPostingListCache(POSTING_LIST_CACHE_BYTES))
+                        .build()
+                );
+                yield new PositionalIndexQueryExecutor(index);
+            }
+            case 3 -> {
+                log("Loading disk index...");
+                BiWordOnDiskInvertedIndex index = logExecutionTime(() -> BiWordOnDiskInvertedIndex.builder(indexDirectory)
+                        .tokenizer(tokenizer)
+                        .encodedInputStreamFactory(VBEncodedInputStream::new)
+                        .memoryMapped(true)
+                        .postingListCache(new LruPostingListCache(POSTING_LIST_CACHE_BYTES))
+                        .build()
+                );
+                yield new BiWordIndexQueryExecutor(index);
+            }
             default -> throw new IllegalArgumentException("Invalid option");
         };
     }
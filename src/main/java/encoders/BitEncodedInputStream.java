@@ -0,0 +1,49 @@
+package encoders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public abstract class BitEncodedInputStream implements EncodedInputStream {
+
+    protected final BitInputStream is;
+
+    protected BitEncodedInputStream(InputStream is) {
+        this.is = new BitInputStream(is);
+    }
+
+    @Override
+    public boolean eofReached() {
+        return is.eofReached();
+    }
+
+    @Override
+    public void resetEof() {
+        is.resetEof();
+    }
+
+    @Override
+    public void read(byte[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++)
+            buffer[i] = (byte) is.readBits(Byte.SIZE);
+    }
+
+    @Override
+    public String readString() {
+        int length = (int) readLong();
+        byte[] bytes = new byte[length];
+        read(bytes, 0, length);
+        return eofReached() ? "" : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected static long readGamma(BitInputStream is) {
+        int zeros = is.readZeros();
+        long value = 1L << zeros | is.readBits(zeros);
+        return is.eofReached() ? 0 : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        is.close();
+    }
+}
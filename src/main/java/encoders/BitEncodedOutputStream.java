@@ -0,0 +1,53 @@
+package encoders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// codes that take whole bits rather than bytes; bytes are written as 8 bits wherever the stream is, and flush() pads
+// the last byte, so posting lists still start on bytes while the postings within them do not
+public abstract class BitEncodedOutputStream implements EncodedOutputStream {
+
+    protected final BitOutputStream os;
+
+    protected BitEncodedOutputStream(OutputStream os) {
+        this.os = new BitOutputStream(os);
+    }
+
+    @Override
+    public int write(byte[] buffer, int offset, int length) {
+        int written = 0;
+        for (int i = offset; i < offset + length; i++)
+            written += os.write(buffer[i], Byte.SIZE);
+        return written;
+    }
+
+    @Override
+    public int write(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int written = write((long) bytes.length);
+        return written + write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public int flush() {
+        return os.align();
+    }
+
+    @Override
+    public boolean seekable() {
+        return false;
+    }
+
+    // the Elias gamma code of a positive value: the length of its binary form less one in zeros, then the binary form
+    protected static int writeGamma(BitOutputStream os, long value) {
+        int length = Long.SIZE - Long.numberOfLeadingZeros(value);
+        return os.writeZeros(length - 1) + os.write(value, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        os.close();
+    }
+}
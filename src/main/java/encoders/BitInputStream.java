@@ -0,0 +1,75 @@
+package encoders;
+
+import lombok.SneakyThrows;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+// reads the bits of BitOutputStream; reads past the end of the stream return zeros and set the eof flag
+public class BitInputStream implements Closeable {
+
+    private final InputStream is;
+    private int current;
+    private int remaining;
+    private boolean eofReached;
+
+    public BitInputStream(InputStream is) {
+        this.is = is;
+    }
+
+    public boolean eofReached() {
+        return eofReached;
+    }
+
+    public void resetEof() {
+        eofReached = false;
+    }
+
+    // count is at most 64
+    public long readBits(int count) {
+        long value = 0;
+        while (count > 0) {
+            if (remaining == 0 && !nextByte()) return 0;
+            int taken = Math.min(count, remaining);
+            remaining -= taken;
+            value = value << taken | current >>> remaining & (1 << taken) - 1;
+            count -= taken;
+        }
+        return value;
+    }
+
+    // counts the zeros before the next one, which is consumed as well
+    public int readZeros() {
+        int zeros = 0;
+        while (true) {
+            if (remaining == 0 && !nextByte()) return zeros;
+            int window = current & (1 << remaining) - 1;
+            if (window == 0) {
+                zeros += remaining;
+                remaining = 0;
+                continue;
+            }
+            int leading = Integer.numberOfLeadingZeros(window) - (Integer.SIZE - remaining);
+            remaining -= leading + 1;
+            return zeros + leading;
+        }
+    }
+
+    @SneakyThrows
+    private boolean nextByte() {
+        int b = is.read();
+        if (b == -1) {
+            eofReached = true;
+            return false;
+        }
+        current = b;
+        remaining = Byte.SIZE;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        is.close();
+    }
+}
@@ -0,0 +1,53 @@
+package encoders;
+
+import lombok.SneakyThrows;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// writes bits, the highest bit of every byte first; bits that do not fill a byte are held back until align()
+public class BitOutputStream implements Closeable {
+
+    private static final int MAX_WRITE_SIZE = Long.SIZE - Byte.SIZE;
+
+    private final OutputStream os;
+    private long bits;
+    private int bitsCount;
+
+    public BitOutputStream(OutputStream os) {
+        this.os = os;
+    }
+
+    // writes the count lowest bits of the value, the highest of them first, returns the number of bytes it completes
+    @SneakyThrows
+    public int write(long value, int count) {
+        if (count > MAX_WRITE_SIZE)
+            return write(value >>> Integer.SIZE, count - Integer.SIZE) + write(value, Integer.SIZE);
+        bits = bits << count | value & (1L << count) - 1;
+        bitsCount += count;
+        int bytes = 0;
+        for (; bitsCount >= Byte.SIZE; bytes++) {
+            bitsCount -= Byte.SIZE;
+            os.write((int) (bits >>> bitsCount));
+        }
+        return bytes;
+    }
+
+    public int writeZeros(int count) {
+        int bytes = 0;
+        for (; count > MAX_WRITE_SIZE; count -= MAX_WRITE_SIZE)
+            bytes += write(0, MAX_WRITE_SIZE);
+        return bytes + write(0, count);
+    }
+
+    // pads the held back bits with zeros to a whole byte
+    public int align() {
+        return bitsCount == 0 ? 0 : write(0, Byte.SIZE - bitsCount);
+    }
+
+    @Override
+    public void close() throws IOException {
+        os.close();
+    }
+}
@@ -0,0 +1,23 @@
+package encoders;
+
+import java.io.InputStream;
+
+public class EliasDeltaEncodedInputStream extends BitEncodedInputStream {
+
+    public EliasDeltaEncodedInputStream(InputStream is) {
+        super(is);
+    }
+
+    @Override
+    public int readInt() {
+        return (int) readLong();
+    }
+
+    @Override
+    public long readLong() {
+        int length = (int) readGamma(is);
+        if (length == 0) return 0;
+        long value = 1L << length - 1 | is.readBits(length - 1);
+        return is.eofReached() ? 0 : value - 1;
+    }
+}
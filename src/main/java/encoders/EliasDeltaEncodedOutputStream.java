@@ -0,0 +1,27 @@
+package encoders;
+
+import java.io.OutputStream;
+
+// the length of the binary form of a value in a gamma code, then the binary form without its leading one, which is
+// shorter than a gamma code for large values; values are coded one up and ints are unsigned
+public class EliasDeltaEncodedOutputStream extends BitEncodedOutputStream {
+
+    public EliasDeltaEncodedOutputStream(OutputStream os) {
+        super(os);
+    }
+
+    @Override
+    public int write(int value) {
+        return writeDelta((value & 0xFFFFFFFFL) + 1);
+    }
+
+    @Override
+    public int write(long value) {
+        return writeDelta(value + 1);
+    }
+
+    private int writeDelta(long value) {
+        int length = Long.SIZE - Long.numberOfLeadingZeros(value);
+        return writeGamma(os, length) + os.write(value, length - 1);
+    }
+}
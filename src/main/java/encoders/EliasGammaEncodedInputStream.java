@@ -0,0 +1,21 @@
+package encoders;
+
+import java.io.InputStream;
+
+public class EliasGammaEncodedInputStream extends BitEncodedInputStream {
+
+    public EliasGammaEncodedInputStream(InputStream is) {
+        super(is);
+    }
+
+    @Override
+    public int readInt() {
+        return (int) readLong();
+    }
+
+    @Override
+    public long readLong() {
+        long value = readGamma(is) - 1;
+        return is.eofReached() ? 0 : value;
+    }
+}
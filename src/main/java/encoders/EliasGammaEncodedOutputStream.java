@@ -0,0 +1,21 @@
+package encoders;
+
+import java.io.OutputStream;
+
+// values are coded one up, as gamma codes start from 1; ints are unsigned
+public class EliasGammaEncodedOutputStream extends BitEncodedOutputStream {
+
+    public EliasGammaEncodedOutputStream(OutputStream os) {
+        super(os);
+    }
+
+    @Override
+    public int write(int value) {
+        return writeGamma(os, (value & 0xFFFFFFFFL) + 1);
+    }
+
+    @Override
+    public int write(long value) {
+        return writeGamma(os, value + 1);
+    }
+}
@@ -1,12 +1,7 @@
 package encoders;
 
-import java.io.Closeable;
-
-public interface EncodedInputStream extends Closeable {
-    boolean eofReached();
+public interface EncodedInputStream extends NumericInputStream {
     void resetEof();
     void read(byte[] buffer, int offset, int length);
-    int readInt();
-    long readLong();
     String readString();
 }
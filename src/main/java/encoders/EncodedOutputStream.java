@@ -3,7 +3,18 @@ package encoders;
 import java.io.Closeable;
 
 public interface EncodedOutputStream extends Closeable {
+    int write(byte[] buffer, int offset, int length);
     int write(int value);
     int write(long value);
     int write(String value);
+
+    // writes the values held back by block and bit codecs, every posting list ends with a flush
+    default int flush() {
+        return 0;
+    }
+
+    // whether a reader can start at a position returned by the writes, bit codecs cannot
+    default boolean seekable() {
+        return true;
+    }
 }
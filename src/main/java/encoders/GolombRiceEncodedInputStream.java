@@ -0,0 +1,37 @@
+package encoders;
+
+import java.io.InputStream;
+
+public class GolombRiceEncodedInputStream extends BitEncodedInputStream {
+
+    private int runRemaining;
+    private int k;
+
+    public GolombRiceEncodedInputStream(InputStream is) {
+        super(is);
+    }
+
+    @Override
+    public int readInt() {
+        if (runRemaining == 0) {
+            runRemaining = (int) readGamma(is);
+            k = (int) is.readBits(GolombRiceEncodedOutputStream.PARAMETER_BITS);
+            if (is.eofReached()) {
+                runRemaining = 0;
+                return 0;
+            }
+        }
+        runRemaining--;
+        int quotient = is.readZeros();
+        long value = quotient < GolombRiceEncodedOutputStream.ESCAPE
+                ? (long) quotient << k | is.readBits(k)
+                : readGamma(is) - 1;
+        return is.eofReached() ? 0 : (int) value;
+    }
+
+    @Override
+    public long readLong() {
+        long value = readGamma(is) - 1;
+        return is.eofReached() ? 0 : value;
+    }
+}
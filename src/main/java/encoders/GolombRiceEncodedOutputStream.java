@@ -0,0 +1,74 @@
+package encoders;
+
+import java.io.OutputStream;
+
+// Golomb codes with a power of two parameter: the quotient of a value by 2^k in unary, as zeros ended by a one, then
+// the k low bits of the value. Ints are held back in runs of up to MAX_RUN_SIZE and every run takes the k that suits
+// the mean of its values, as the mean gap of a posting list is the number of documents over its document frequency;
+// a run is its size in a gamma code, k in 5 bits and its codes. Quotients from ESCAPE on are written as the ESCAPE
+// code followed by the gamma code of the value, so that outliers stay short. Longs and strings end the current run
+// and are gamma coded
+public class GolombRiceEncodedOutputStream extends BitEncodedOutputStream {
+
+    public static final int MAX_RUN_SIZE = 1024;
+    static final int PARAMETER_BITS = 5;
+    static final int ESCAPE = 32;
+
+    private int[] run;
+    private int runSize;
+
+    public GolombRiceEncodedOutputStream(OutputStream os) {
+        super(os);
+        run = new int[MAX_RUN_SIZE];
+    }
+
+    // returns the bytes the run completes when the value ends it, 0 otherwise
+    @Override
+    public int write(int value) {
+        run[runSize++] = value;
+        return runSize == MAX_RUN_SIZE ? endRun() : 0;
+    }
+
+    @Override
+    public int write(long value) {
+        int written = endRun();
+        return written + writeGamma(os, value + 1);
+    }
+
+    @Override
+    public int write(byte[] buffer, int offset, int length) {
+        int written = endRun();
+        return written + super.write(buffer, offset, length);
+    }
+
+    @Override
+    public int flush() {
+        int written = endRun();
+        return written + super.flush();
+    }
+
+    private int endRun() {
+        if (runSize == 0) return 0;
+        int k = parameter();
+        int written = writeGamma(os, runSize) + os.write(k, PARAMETER_BITS);
+        for (int i = 0; i < runSize; i++) {
+            long value = run[i] & 0xFFFFFFFFL;
+            long quotient = value >>> k;
+            if (quotient < ESCAPE)
+                written += os.writeZeros((int) quotient) + os.write(1, 1) + os.write(value, k);
+            else
+                written += os.writeZeros(ESCAPE) + os.write(1, 1) + writeGamma(os, value + 1);
+        }
+        runSize = 0;
+        return written;
+    }
+
+    // a Golomb code is optimal for geometric gaps with a parameter of about ln 2 times their mean
+    private int parameter() {
+        long sum = 0;
+        for (int i = 0; i < runSize; i++)
+            sum += run[i] & 0xFFFFFFFFL;
+        long parameter = (long) (Math.log(2) * sum / runSize);
+        return parameter == 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(parameter);
+    }
+}
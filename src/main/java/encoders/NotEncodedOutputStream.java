@@ -18,6 +18,13 @@ public class NotEncodedOutputStream implements EncodedOutputStream {
         longBuffer = new byte[8];
     }
 
+    @Override
+    @SneakyThrows
+    public int write(byte[] buffer, int offset, int length) {
+        os.write(buffer, offset, length);
+        return length;
+    }
+
     @Override
     @SneakyThrows
     public int write(int value) {
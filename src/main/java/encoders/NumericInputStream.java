@@ -0,0 +1,11 @@
+package encoders;
+
+import java.io.Closeable;
+
+// the part of EncodedInputStream that in-blocks read runs through, so that merges can feed them streams that only
+// produce numbers, such as segments presented in the layout of a run file
+public interface NumericInputStream extends Closeable {
+    boolean eofReached();
+    int readInt();
+    long readLong();
+}
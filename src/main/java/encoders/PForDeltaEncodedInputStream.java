@@ -0,0 +1,123 @@
+package encoders;
+
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// reads the blocks of PForDeltaEncodedOutputStream a whole block at a time; a value is unpacked from the little-endian
+// long at its bit offset, so the unpacking loop has no branches and no dependencies between its iterations
+public class PForDeltaEncodedInputStream implements EncodedInputStream {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final InputStream is;
+    private boolean eofReached;
+    private int[] block;
+    private int blockSize;
+    private int blockPosition;
+    // packed values, with room to read a long at the offset of the last one
+    private byte[] packed;
+    private byte[] buffer;
+
+    public PForDeltaEncodedInputStream(InputStream is) {
+        this.is = is;
+        block = new int[PForDeltaEncodedOutputStream.BLOCK_SIZE];
+        packed = new byte[PForDeltaEncodedOutputStream.BLOCK_SIZE * Integer.BYTES + Long.BYTES];
+        buffer = new byte[PForDeltaEncodedOutputStream.HEADER_SIZE];
+    }
+
+    @Override
+    public boolean eofReached() {
+        return eofReached;
+    }
+
+    @Override
+    public void resetEof() {
+        eofReached = false;
+    }
+
+    @Override
+    @SneakyThrows
+    public void read(byte[] buffer, int offset, int length) {
+        if (is.read(buffer, offset, length) == -1)
+            eofReached = true;
+    }
+
+    @Override
+    public int readInt() {
+        if (blockPosition == blockSize && !readBlock()) {
+            eofReached = true;
+            return 0;
+        }
+        return block[blockPosition++];
+    }
+
+    @SneakyThrows
+    private boolean readBlock() {
+        if (is.readNBytes(buffer, 0, PForDeltaEncodedOutputStream.HEADER_SIZE) != PForDeltaEncodedOutputStream.HEADER_SIZE)
+            return false;
+        int size = buffer[0] & 0xFF;
+        int width = buffer[1];
+        int exceptionsCount = buffer[2] & 0xFF;
+        int packedSize = (size * width + Byte.SIZE - 1) / Byte.SIZE;
+        if (is.readNBytes(packed, 0, packedSize) != packedSize) return false;
+        unpack(size, width);
+        for (int i = 0; i < exceptionsCount; i++) {
+            int position = is.read();
+            long high = readLong();
+            if (position == -1 || eofReached) return false;
+            block[position] |= (int) (high << width);
+        }
+        blockSize = size;
+        blockPosition = 0;
+        return true;
+    }
+
+    private void unpack(int size, int width) {
+        long mask = (1L << width) - 1;
+        for (int i = 0, bit = 0; i < size; i++, bit += width) {
+            long word = (long) LONGS.get(packed, bit >>> 3);
+            block[i] = (int) (word >>> (bit & 7) & mask);
+        }
+    }
+
+    @Override
+    @SneakyThrows
+    public long readLong() {
+        long value = 0;
+        int b;
+        do {
+            if ((b = is.read()) == -1) {
+                eofReached = true;
+                return 0;
+            }
+            value = value << 7 | b & 0x7F;
+        } while ((b & 0x80) == 0);
+        return value;
+    }
+
+    @Override
+    @SneakyThrows
+    public String readString() {
+        int length = (int) readLong();
+        byte[] bytes = is.readNBytes(length);
+        if (bytes.length != length) {
+            eofReached = true;
+            return "";
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        is.close();
+        block = null;
+        packed = null;
+        buffer = null;
+    }
+}
@@ -0,0 +1,139 @@
+package encoders;
+
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// patched frame of reference: ints are held back in blocks of BLOCK_SIZE and every block is bit-packed at the width
+// that makes it smallest, the few values wider than that are exceptions whose high bits are patched in after unpacking;
+// a block is the number of its values, their width and the number of exceptions as bytes, the packed values,
+// and the position and the VB encoded high bits of every exception.
+// Longs, strings and bytes end the current block and are written in between blocks as VBEncodedOutputStream does
+public class PForDeltaEncodedOutputStream implements EncodedOutputStream {
+
+    public static final int BLOCK_SIZE = 128;
+    static final int HEADER_SIZE = 3;
+
+    private final OutputStream os;
+    private int[] block;
+    private int blockSize;
+    private byte[] buffer;
+    private final int[] lengthCounts;
+
+    public PForDeltaEncodedOutputStream(OutputStream os) {
+        this.os = os;
+        block = new int[BLOCK_SIZE];
+        buffer = new byte[HEADER_SIZE + BLOCK_SIZE * Integer.BYTES + BLOCK_SIZE * 6];
+        lengthCounts = new int[Integer.SIZE + 1];
+    }
+
+    @Override
+    @SneakyThrows
+    public int write(byte[] buffer, int offset, int length) {
+        int written = flush();
+        os.write(buffer, offset, length);
+        return written + length;
+    }
+
+    // returns the size of the block when the value completes it, 0 otherwise
+    @Override
+    public int write(int value) {
+        block[blockSize++] = value;
+        return blockSize == BLOCK_SIZE ? flush() : 0;
+    }
+
+    @Override
+    @SneakyThrows
+    public int write(long value) {
+        int written = flush();
+        int bytes = writeVB(value, 0);
+        os.write(buffer, 0, bytes);
+        return written + bytes;
+    }
+
+    @Override
+    @SneakyThrows
+    public int write(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int written = write((long) bytes.length);
+        os.write(bytes);
+        return written + bytes.length;
+    }
+
+    @Override
+    @SneakyThrows
+    public int flush() {
+        if (blockSize == 0) return 0;
+        int width = width();
+        long mask = (1L << width) - 1;
+        int exceptionsCount = 0;
+        buffer[0] = (byte) blockSize;
+        buffer[1] = (byte) width;
+        int position = HEADER_SIZE;
+        long bits = 0;
+        int bitsCount = 0;
+        for (int i = 0; i < blockSize; i++) {
+            long value = block[i] & 0xFFFFFFFFL;
+            if (value > mask) exceptionsCount++;
+            bits |= (value & mask) << bitsCount;
+            bitsCount += width;
+            for (; bitsCount >= Byte.SIZE; bitsCount -= Byte.SIZE, bits >>>= Byte.SIZE)
+                buffer[position++] = (byte) bits;
+        }
+        if (bitsCount > 0) buffer[position++] = (byte) bits;
+        buffer[2] = (byte) exceptionsCount;
+        for (int i = 0; i < blockSize && exceptionsCount > 0; i++) {
+            long value = block[i] & 0xFFFFFFFFL;
+            if (value <= mask) continue;
+            buffer[position++] = (byte) i;
+            position = writeVB(value >>> width, position);
+        }
+        os.write(buffer, 0, position);
+        blockSize = 0;
+        return position;
+    }
+
+    // the width that packs the block into the fewest bytes, exceptions included, from the counts of the bit lengths;
+    // of equal sizes the narrowest width without more exceptions wins
+    private int width() {
+        Arrays.fill(lengthCounts, 0);
+        for (int i = 0; i < blockSize; i++)
+            lengthCounts[Integer.SIZE - Integer.numberOfLeadingZeros(block[i])]++;
+        int best = Integer.SIZE;
+        int bestSize = Integer.MAX_VALUE;
+        int bestExceptions = 0;
+        int exceptions = 0;
+        for (int width = Integer.SIZE; width >= 0; width--) {
+            if (width < Integer.SIZE) exceptions += lengthCounts[width + 1];
+            int size = (blockSize * width + Byte.SIZE - 1) / Byte.SIZE;
+            for (int length = width + 1; length <= Integer.SIZE; length++)
+                size += lengthCounts[length] * (1 + (length - width + 6) / 7);
+            if (size < bestSize || size == bestSize && exceptions == bestExceptions) {
+                best = width;
+                bestSize = size;
+                bestExceptions = exceptions;
+            }
+        }
+        return best;
+    }
+
+    private int writeVB(long value, int position) {
+        int bytes = 1;
+        for (long rest = value >>> 7; rest != 0; rest >>>= 7)
+            bytes++;
+        for (int i = bytes - 1; i >= 0; i--, value >>>= 7)
+            buffer[position + i] = (byte) (value & 0x7F | (i == bytes - 1 ? 0x80 : 0));
+        return position + bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        os.close();
+        block = null;
+        buffer = null;
+    }
+}
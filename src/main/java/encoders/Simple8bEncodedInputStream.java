@@ -0,0 +1,110 @@
+package encoders;
+
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// reads the words of Simple8bEncodedOutputStream a word at a time; the selector gives the count and the width of the
+// values, which are unpacked from the word by shifts and a mask with no branches on the values
+public class Simple8bEncodedInputStream implements EncodedInputStream {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final InputStream is;
+    private boolean eofReached;
+    private int[] values;
+    private int valuesSize;
+    private int valuesPosition;
+    private byte[] buffer;
+
+    public Simple8bEncodedInputStream(InputStream is) {
+        this.is = is;
+        values = new int[Simple8bEncodedOutputStream.COUNTS[0]];
+        buffer = new byte[Long.BYTES];
+    }
+
+    @Override
+    public boolean eofReached() {
+        return eofReached;
+    }
+
+    @Override
+    public void resetEof() {
+        eofReached = false;
+    }
+
+    @Override
+    @SneakyThrows
+    public void read(byte[] buffer, int offset, int length) {
+        if (is.read(buffer, offset, length) == -1)
+            eofReached = true;
+    }
+
+    @Override
+    public int readInt() {
+        if (valuesPosition == valuesSize && !readWord()) {
+            eofReached = true;
+            return 0;
+        }
+        return values[valuesPosition++];
+    }
+
+    @SneakyThrows
+    private boolean readWord() {
+        if (is.readNBytes(buffer, 0, Long.BYTES) != Long.BYTES) return false;
+        long word = (long) LONGS.get(buffer, 0);
+        int selector = (int) (word >>> Long.SIZE - Simple8bEncodedOutputStream.SELECTOR_BITS);
+        int count = Simple8bEncodedOutputStream.COUNTS[selector];
+        int width = Simple8bEncodedOutputStream.WIDTHS[selector];
+        if (width == 0) {
+            Arrays.fill(values, 0, count, 1);
+        } else {
+            long mask = (1L << width) - 1;
+            for (int i = 0; i < count; i++)
+                values[i] = (int) (word >>> i * width & mask);
+        }
+        valuesSize = count;
+        valuesPosition = 0;
+        return true;
+    }
+
+    @Override
+    @SneakyThrows
+    public long readLong() {
+        long value = 0;
+        int b;
+        do {
+            if ((b = is.read()) == -1) {
+                eofReached = true;
+                return 0;
+            }
+            value = value << 7 | b & 0x7F;
+        } while ((b & 0x80) == 0);
+        return value;
+    }
+
+    @Override
+    @SneakyThrows
+    public String readString() {
+        int length = (int) readLong();
+        byte[] bytes = is.readNBytes(length);
+        if (bytes.length != length) {
+            eofReached = true;
+            return "";
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        is.close();
+        values = null;
+        buffer = null;
+    }
+}
@@ -0,0 +1,125 @@
+package encoders;
+
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// word-aligned packing: ints are held back in blocks of BLOCK_SIZE and every block is written as 64-bit words, each
+// packing as many of the next values as fit at one of the widths of the selector in its high 4 bits; selectors 0 and
+// 1 are runs of ones, so that the term frequencies and gaps of dense posting lists take a few bits per run.
+// A block is as long as the longest run, so that a full block of ones is a single word.
+// A word never packs more values than are left in the block, so blocks start at a word as PForDelta blocks do.
+// Longs, strings and bytes end the current block and are written in between blocks as VBEncodedOutputStream does
+public class Simple8bEncodedOutputStream implements EncodedOutputStream {
+
+    public static final int BLOCK_SIZE = 240;
+    static final int SELECTOR_BITS = 4;
+    static final int[] COUNTS = { 240, 120, 60, 30, 20, 15, 12, 10, 8, 7, 6, 5, 4, 3, 2, 1 };
+    static final int[] WIDTHS = { 0, 0, 1, 2, 3, 4, 5, 6, 7, 8, 10, 12, 15, 20, 30, 60 };
+
+    private final OutputStream os;
+    private int[] block;
+    private int blockSize;
+    private byte[] buffer;
+
+    public Simple8bEncodedOutputStream(OutputStream os) {
+        this.os = os;
+        block = new int[BLOCK_SIZE];
+        buffer = new byte[BLOCK_SIZE * Long.BYTES];
+    }
+
+    @Override
+    @SneakyThrows
+    public int write(byte[] buffer, int offset, int length) {
+        int written = flush();
+        os.write(buffer, offset, length);
+        return written + length;
+    }
+
+    // returns the size of the words of the block when the value completes it, 0 otherwise
+    @Override
+    public int write(int value) {
+        block[blockSize++] = value;
+        return blockSize == BLOCK_SIZE ? flush() : 0;
+    }
+
+    @Override
+    @SneakyThrows
+    public int write(long value) {
+        int written = flush();
+        int bytes = writeVB(value);
+        os.write(buffer, 0, bytes);
+        return written + bytes;
+    }
+
+    @Override
+    @SneakyThrows
+    public int write(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int written = write((long) bytes.length);
+        os.write(bytes);
+        return written + bytes.length;
+    }
+
+    @Override
+    @SneakyThrows
+    public int flush() {
+        if (blockSize == 0) return 0;
+        int position = 0;
+        for (int start = 0; start < blockSize; ) {
+            int selector = selector(start);
+            int count = COUNTS[selector];
+            int width = WIDTHS[selector];
+            long word = (long) selector << Long.SIZE - SELECTOR_BITS;
+            if (width > 0) {
+                for (int i = 0; i < count; i++)
+                    word |= (block[start + i] & 0xFFFFFFFFL) << i * width;
+            }
+            for (int i = 0; i < Long.BYTES; i++, word >>>= Byte.SIZE)
+                buffer[position++] = (byte) word;
+            start += count;
+        }
+        os.write(buffer, 0, position);
+        blockSize = 0;
+        return position;
+    }
+
+    // the selector packing the most values from the start that are left in the block
+    private int selector(int start) {
+        int left = blockSize - start;
+        int selector = 0;
+        for (; selector < COUNTS.length - 1; selector++) {
+            int count = COUNTS[selector];
+            if (count > left) continue;
+            if (fits(start, count, WIDTHS[selector])) break;
+        }
+        return selector;
+    }
+
+    private boolean fits(int start, int count, int width) {
+        for (int i = start; i < start + count; i++) {
+            long value = block[i] & 0xFFFFFFFFL;
+            if (width == 0 ? value != 1 : value >>> width != 0) return false;
+        }
+        return true;
+    }
+
+    private int writeVB(long value) {
+        int bytes = 1;
+        for (long rest = value >>> 7; rest != 0; rest >>>= 7)
+            bytes++;
+        for (int i = bytes - 1; i >= 0; i--, value >>>= 7)
+            buffer[i] = (byte) (value & 0x7F | (i == bytes - 1 ? 0x80 : 0));
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        os.close();
+        block = null;
+        buffer = null;
+    }
+}
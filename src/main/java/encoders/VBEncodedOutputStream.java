@@ -16,6 +16,13 @@ public class VBEncodedOutputStream implements EncodedOutputStream {
         buffer = new byte[9];
     }
 
+    @Override
+    @SneakyThrows
+    public int write(byte[] buffer, int offset, int length) {
+        os.write(buffer, offset, length);
+        return length;
+    }
+
     @Override
     @SneakyThrows
     public int write(int value) {
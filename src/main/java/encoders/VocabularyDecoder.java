@@ -7,4 +7,12 @@ public interface VocabularyDecoder {
     byte[] readPrefix();
 
     String readTerm(byte[] prefix);
+
+    // the prefix of the block is left in place for the comparisons of its terms
+    void skipPrefix();
+
+    void skipTerm();
+
+    // compares the UTF-8 bytes of a term with the next term of the block as unsigned bytes and moves past it
+    int compareTerm(byte[] term);
 }
@@ -1,17 +1,26 @@
 package encoders;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.function.Function;
 
 public class VocabularyFrontDecoder implements VocabularyDecoder {
 
-    private final SeekableByteArrayInputStream vocabularyString;
+    private final ByteBuffer buffer;
+    private final ByteBufferInputStream vocabularyString;
     private final EncodedInputStream is;
+    private int prefixPosition;
+    private int prefixSize;
 
     public VocabularyFrontDecoder(byte[] vocabularyString, Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
-        this.vocabularyString = new SeekableByteArrayInputStream(vocabularyString);
+        this(ByteBuffer.wrap(vocabularyString), encodedInputStreamFactory);
+    }
+
+    // the buffer is read from its own position, so a decoder needs a buffer of its own
+    public VocabularyFrontDecoder(ByteBuffer vocabularyString, Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
+        this.buffer = vocabularyString;
+        this.vocabularyString = new ByteBufferInputStream(vocabularyString);
         this.is = encodedInputStreamFactory.apply(this.vocabularyString);
     }
 
@@ -40,14 +49,35 @@ public class VocabularyFrontDecoder implements VocabularyDecoder {
         return new String(term, StandardCharsets.UTF_8);
     }
 
-    private static class SeekableByteArrayInputStream extends ByteArrayInputStream {
+    @Override
+    public void skipPrefix() {
+        prefixSize = is.readInt();
+        prefixPosition = buffer.position();
+        vocabularyString.skip(prefixSize);
+    }
 
-        public SeekableByteArrayInputStream(byte[] buf) {
-            super(buf);
-        }
+    @Override
+    public void skipTerm() {
+        vocabularyString.skip(is.readInt());
+    }
+
+    @Override
+    public int compareTerm(byte[] term) {
+        int suffixSize = is.readInt();
+        int suffixPosition = buffer.position();
+        vocabularyString.skip(suffixSize);
+        int comparison = compare(term, 0, prefixPosition, Math.min(term.length, prefixSize));
+        if (comparison != 0) return comparison;
+        comparison = compare(term, prefixSize, suffixPosition, Math.min(term.length - prefixSize, suffixSize));
+        if (comparison != 0) return comparison;
+        return term.length - prefixSize - suffixSize;
+    }
 
-        public void seek(int position) {
-            pos = position;
+    private int compare(byte[] term, int offset, int position, int length) {
+        for (int i = 0; i < length; i++) {
+            int comparison = Byte.compareUnsigned(term[offset + i], buffer.get(position + i));
+            if (comparison != 0) return comparison;
         }
+        return 0;
     }
 }
@@ -4,7 +4,7 @@ import lombok.SneakyThrows;
 
 public class VocabularyFrontEncoder implements VocabularyEncoder {
 
-    public static final int TERMS_PER_BLOCK = 4;
+    public static final int DEFAULT_TERMS_PER_BLOCK = 4;
 
     private final EncodedOutputStream osString;
     private final EncodedOutputStream osTable;
@@ -14,9 +14,14 @@ public class VocabularyFrontEncoder implements VocabularyEncoder {
     private int currentPosition;
 
     public VocabularyFrontEncoder(EncodedOutputStream osString, EncodedOutputStream osTable) {
+        this(osString, osTable, DEFAULT_TERMS_PER_BLOCK);
+    }
+
+    // larger blocks share prefixes between more terms, but a lookup decodes a whole block
+    public VocabularyFrontEncoder(EncodedOutputStream osString, EncodedOutputStream osTable, int termsPerBlock) {
         this.osString = osString;
         this.osTable = osTable;
-        currentBlock = new String[TERMS_PER_BLOCK];
+        currentBlock = new String[termsPerBlock];
     }
 
     public void write(String term, int frequency, long position) {
@@ -25,7 +30,7 @@ public class VocabularyFrontEncoder implements VocabularyEncoder {
         osTable.write(frequency);
         osTable.write(position);
         currentBlock[currentBlockSize++] = term;
-        if (currentBlockSize == TERMS_PER_BLOCK)
+        if (currentBlockSize == currentBlock.length)
             flushBlock();
     }
 
@@ -46,6 +51,9 @@ public class VocabularyFrontEncoder implements VocabularyEncoder {
                     break;
             }
         }
+        // a prefix ending inside a surrogate pair could not be encoded to UTF-8 on its own
+        if (prefixLength > 0 && Character.isHighSurrogate(currentBlock[0].charAt(prefixLength - 1)))
+            prefixLength--;
         return prefixLength;
     }
 
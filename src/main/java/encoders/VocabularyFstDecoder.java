@@ -0,0 +1,148 @@
+package encoders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// walks a transducer written by VocabularyFstEncoder in place; a decoder keeps the state of its reads,
+// so every thread needs a decoder of its own
+public class VocabularyFstDecoder {
+
+    private final ByteBuffer fst;
+    private final int root;
+    private int position;
+    private int arcOutput;
+    private int arcTarget;
+
+    public VocabularyFstDecoder(ByteBuffer fst) {
+        this.fst = fst;
+        this.root = fst.getInt(fst.limit() - Integer.BYTES);
+    }
+
+    // the ordinal of a term given by its UTF-8 bytes, -1 when the vocabulary does not hold it
+    public int lookup(byte[] term) {
+        int address = root;
+        int output = 0;
+        for (byte label : term) {
+            if (!findArc(address, label)) return -1;
+            output += arcOutput;
+            address = arcTarget;
+        }
+        position = address;
+        return (readInt() & 1) != 0 ? output : -1;
+    }
+
+    // arcs are stored in label order, so the scan stops at the first greater label
+    private boolean findArc(int address, byte label) {
+        position = address;
+        int arcsCount = readInt() >>> 1;
+        for (int i = 0; i < arcsCount; i++) {
+            int comparison = Byte.compareUnsigned(fst.get(position++), label);
+            arcOutput = readInt();
+            arcTarget = readInt();
+            if (comparison == 0) return true;
+            if (comparison > 0) return false;
+        }
+        return false;
+    }
+
+    private int readInt() {
+        int value = 0;
+        byte b;
+        do {
+            b = fst.get(position++);
+            value = value << 7 | b & 0x7F;
+        } while ((b & 0x80) == 0);
+        return value;
+    }
+
+    // the terms that start with the prefix given by its UTF-8 bytes, in order
+    public Terms terms(byte[] prefix) {
+        return new Terms(prefix);
+    }
+
+    public final class Terms {
+        private final int prefixLength;
+        private byte[] term;
+        private int length;
+        private int ordinal;
+        // the node the enumeration starts from, -1 once it has been entered or when no term has the prefix
+        private int start;
+        private int startOutput;
+        // a frame for every node along the current term: the position of its next arc, the number of its arcs left
+        // and the output of the path to it
+        private int[] positions;
+        private int[] remaining;
+        private int[] outputs;
+        private int depth;
+
+        private Terms(byte[] prefix) {
+            prefixLength = length = prefix.length;
+            term = Arrays.copyOf(prefix, prefix.length + 16);
+            positions = new int[16];
+            remaining = new int[16];
+            outputs = new int[16];
+            start = -1;
+            int address = root;
+            int output = 0;
+            for (byte label : prefix) {
+                if (!findArc(address, label)) return;
+                output += arcOutput;
+                address = arcTarget;
+            }
+            start = address;
+            startOutput = output;
+        }
+
+        public boolean next() {
+            if (start != -1) {
+                int address = start;
+                start = -1;
+                if (enter(address, startOutput)) return true;
+            }
+            while (depth > 0) {
+                int frame = depth - 1;
+                if (remaining[frame] == 0) {
+                    depth--;
+                    continue;
+                }
+                position = positions[frame];
+                byte label = fst.get(position++);
+                int output = outputs[frame] + readInt();
+                int target = readInt();
+                positions[frame] = position;
+                remaining[frame]--;
+                length = prefixLength + depth;
+                if (length > term.length)
+                    term = Arrays.copyOf(term, term.length * 2);
+                term[length - 1] = label;
+                if (enter(target, output)) return true;
+            }
+            return false;
+        }
+
+        // returns whether a term ends at the node
+        private boolean enter(int address, int output) {
+            position = address;
+            int header = readInt();
+            if (depth == positions.length) {
+                positions = Arrays.copyOf(positions, depth * 2);
+                remaining = Arrays.copyOf(remaining, depth * 2);
+                outputs = Arrays.copyOf(outputs, depth * 2);
+            }
+            positions[depth] = position;
+            remaining[depth] = header >>> 1;
+            outputs[depth++] = output;
+            ordinal = output;
+            return (header & 1) != 0;
+        }
+
+        public String term() {
+            return new String(term, 0, length, StandardCharsets.UTF_8);
+        }
+
+        public int ordinal() {
+            return ordinal;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package encoders;
+
+import lombok.SneakyThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// builds a minimal acyclic finite state transducer from the UTF-8 bytes of the terms to their ordinals;
+// terms come in unsigned byte order, so the nodes past the common prefix of two consecutive terms are complete
+// and are compiled right away, equal nodes are stored once and terms share their suffixes as well as their prefixes;
+// an arc carries the part of the ordinal of the first term below it that its path does not carry already
+public class VocabularyFstEncoder implements VocabularyEncoder {
+
+    private final OutputStream osFst;
+    private final EncodedOutputStream osTable;
+    private final int termsPerBlock;
+    // compiled nodes, children before their parents, and the addresses of their encodings
+    private final ByteArrayOutputStream nodes;
+    private final Map<ByteBuffer, Integer> addresses;
+    private final ByteArrayOutputStream node;
+    private final EncodedOutputStream nodeOs;
+    // nodes along the previous term that still take arcs
+    private final List<PendingNode> frontier;
+    private byte[] previous;
+    private int ordinal;
+
+    // the table keeps the layout of front-coded vocabularies, its block positions are unused
+    public VocabularyFstEncoder(OutputStream osFst, EncodedOutputStream osTable, int termsPerBlock) {
+        this.osFst = osFst;
+        this.osTable = osTable;
+        this.termsPerBlock = termsPerBlock;
+        nodes = new ByteArrayOutputStream();
+        addresses = new HashMap<>();
+        node = new ByteArrayOutputStream();
+        nodeOs = new VBEncodedOutputStream(node);
+        frontier = new ArrayList<>();
+        frontier.add(new PendingNode());
+        previous = new byte[0];
+    }
+
+    @Override
+    public void write(String term, int frequency, long position) {
+        if (ordinal % termsPerBlock == 0)
+            osTable.write(0);
+        osTable.write(frequency);
+        osTable.write(position);
+        add(term.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void add(byte[] term) {
+        if (ordinal > 0 && Arrays.compareUnsigned(previous, term) >= 0)
+            throw new IllegalArgumentException("Terms must be added in order: " + new String(term, StandardCharsets.UTF_8));
+        int common = Arrays.mismatch(previous, term);
+        if (common == -1) common = term.length;
+        freeze(common);
+        int output = ordinal;
+        for (int i = 0; i < common; i++)
+            output -= frontier.get(i).lastOutput();
+        for (int i = common; i < term.length; i++) {
+            frontier.get(i).addArc(term[i], i == common ? output : 0);
+            if (i + 1 == frontier.size()) frontier.add(new PendingNode());
+            else frontier.get(i + 1).clear();
+        }
+        frontier.get(term.length).isFinal = true;
+        previous = term;
+        ordinal++;
+    }
+
+    private void freeze(int depth) {
+        for (int i = previous.length; i > depth; i--)
+            frontier.get(i - 1).setLastTarget(compile(frontier.get(i)));
+    }
+
+    // a node is the number of its arcs shifted over its final flag, and the label, output and target of every arc
+    private int compile(PendingNode pending) {
+        node.reset();
+        nodeOs.write(pending.arcsCount << 1 | (pending.isFinal ? 1 : 0));
+        for (int i = 0; i < pending.arcsCount; i++) {
+            node.write(pending.labels[i]);
+            nodeOs.write(pending.outputs[i]);
+            nodeOs.write(pending.targets[i]);
+        }
+        byte[] encoded = node.toByteArray();
+        Integer address = addresses.get(ByteBuffer.wrap(encoded));
+        if (address != null) return address;
+        address = nodes.size();
+        nodes.writeBytes(encoded);
+        addresses.put(ByteBuffer.wrap(encoded), address);
+        return address;
+    }
+
+    // the nodes are followed by the address of the root
+    @Override
+    @SneakyThrows
+    public void close() {
+        freeze(0);
+        int root = compile(frontier.getFirst());
+        try (DataOutputStream os = new DataOutputStream(osFst)) {
+            nodes.writeTo(os);
+            os.writeInt(root);
+        }
+        osTable.close();
+    }
+
+    private static class PendingNode {
+        private boolean isFinal;
+        private byte[] labels = new byte[4];
+        private int[] outputs = new int[4];
+        private int[] targets = new int[4];
+        private int arcsCount;
+
+        private void addArc(byte label, int output) {
+            if (arcsCount == labels.length) {
+                labels = Arrays.copyOf(labels, arcsCount * 2);
+                outputs = Arrays.copyOf(outputs, arcsCount * 2);
+                targets = Arrays.copyOf(targets, arcsCount * 2);
+            }
+            labels[arcsCount] = label;
+            outputs[arcsCount++] = output;
+        }
+
+        private int lastOutput() {
+            return outputs[arcsCount - 1];
+        }
+
+        private void setLastTarget(int target) {
+            targets[arcsCount - 1] = target;
+        }
+
+        private void clear() {
+            isFinal = false;
+            arcsCount = 0;
+        }
+    }
+}
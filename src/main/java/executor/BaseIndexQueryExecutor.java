@@ -22,7 +22,12 @@ public abstract class BaseIndexQueryExecutor<T extends Index> implements QueryEx
     public List<String> execute(Expression query) {
         Map<Expression, Integer> estimation = new HashMap<>();
         estimate(query, estimation);
-        return executeForIds(query, estimation).stream().map(index::getDocumentName).toList();
+        return removeDeleted(executeForIds(query, estimation)).stream().map(index::getDocumentName).toList();
+    }
+
+    protected List<Integer> removeDeleted(List<Integer> ids) {
+        if (!index.hasDeletedDocuments()) return ids;
+        return ids.stream().filter(id -> !index.isDeleted(id)).toList();
     }
 
     protected void estimate(Expression query, Map<Expression, Integer> estimation) {
@@ -85,12 +90,18 @@ public abstract class BaseIndexQueryExecutor<T extends Index> implements QueryEx
             if (result.isEmpty()) break;
             if (sub instanceof NotExpression ne)
                 result = andNot(result, executeForIds(ne.getSubExpression(), estimation));
+            else if (sub instanceof PhraseExpression pe)
+                result = andPhrase(result, pe);
             else
                 result = and(result, executeForIds(sub, estimation));
         }
         return result;
     }
 
+    protected List<Integer> andPhrase(List<Integer> ids, PhraseExpression e) {
+        return and(ids, executePhrase(e));
+    }
+
     protected List<Integer> executeOr(OrExpression e, Map<Expression, Integer> estimation) {
         e.getSubExpressions().sort(comparing(estimation::get).reversed());
         List<Integer> result = executeForIds(e.getSubExpressions().getFirst(), estimation);
@@ -50,8 +50,6 @@ public class BiWordIndexQueryExecutor extends BaseIndexQueryExecutor<BiWordIndex
     }
 
     protected List<Integer> filter(List<Integer> possibleDocumentIds, List<String> terms) {
-        return possibleDocumentIds.stream()
-                .filter(id -> index.getProcessedDocument(id).contains(String.join(index.getSeparator(), terms)))
-                .toList();
+        return index.filterPhrase(possibleDocumentIds, terms);
     }
 }
@@ -1,11 +1,19 @@
 package executor;
 
+import expression.PhraseExpression;
 import structure.document.Index;
 
+import java.util.List;
+
 
 public class IndexQueryExecutor extends BaseIndexQueryExecutor<Index> {
 
     public IndexQueryExecutor(Index index) {
         super(index);
     }
+
+    @Override
+    protected List<Integer> andPhrase(List<Integer> ids, PhraseExpression e) {
+        return index.getDocumentIds(e.getPhrase(), ids);
+    }
 }
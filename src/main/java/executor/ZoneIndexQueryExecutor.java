@@ -20,7 +20,7 @@ public class ZoneIndexQueryExecutor extends BaseIndexQueryExecutor<ZoneIndex> {
     public List<String> execute(Expression query) {
         Map<Expression, Integer> estimation = new HashMap<>();
         estimate(query, estimation);
-        List<Integer> ids = executeForIds(query, estimation);
+        List<Integer> ids = removeDeleted(executeForIds(query, estimation));
         return computeScores(ids).stream()
                 .sorted()
                 .map(this::mapToResult)
@@ -1,6 +1,10 @@
 package structure.document;
 
+import java.util.List;
+
 public interface BiWordIndex extends Index {
-    String getProcessedDocument(int id);
     String getSeparator();
+
+    // biword postings also match documents that contain every biword of a phrase but not the phrase itself
+    List<Integer> filterPhrase(List<Integer> documentIds, List<String> terms);
 }
@@ -1,9 +1,32 @@
 package structure.document;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface Index extends SearchStructure<List<Integer>> {
     List<Integer> getAllDocumentIds();
 
     int getDocumentFrequency(String term);
+
+    // the ids of the term among the given sorted ids
+    default List<Integer> getDocumentIds(String term, List<Integer> among) {
+        List<Integer> ids = getDocumentIds(term);
+        List<Integer> result = new ArrayList<>();
+        int l = 0, r = 0;
+        while (l < among.size() && r < ids.size()) {
+            int comparison = Integer.compare(among.get(l), ids.get(r));
+            if (comparison == 0) result.add(among.get(l));
+            if (comparison <= 0) l++;
+            if (comparison >= 0) r++;
+        }
+        return result;
+    }
+
+    default boolean hasDeletedDocuments() {
+        return false;
+    }
+
+    default boolean isDeleted(int id) {
+        return false;
+    }
 }
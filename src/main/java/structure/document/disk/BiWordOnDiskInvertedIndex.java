@@ -0,0 +1,144 @@
+package structure.document.disk;
+
+import encoders.EncodedInputStream;
+import encoders.NotEncodedInputStream;
+import structure.document.BiWordIndex;
+import structure.document.PositionalIndex;
+import tokenizer.DefaultTokenizer;
+import tokenizer.Tokenizer;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+
+public class BiWordOnDiskInvertedIndex extends OnDiskInvertedIndex implements BiWordIndex {
+
+    private BiWordOnDiskInvertedIndex(Path indexDirectory, Tokenizer tokenizer, int zonesCount,
+                                      Function<InputStream, EncodedInputStream> encodedInputStreamFactory,
+                                      Function<InputStream, EncodedInputStream> postingsInputStreamFactory, boolean memoryMapped,
+                                      PostingListCache postingListCache) {
+        super(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory, postingsInputStreamFactory, memoryMapped, postingListCache);
+    }
+
+    @Override
+    protected List<Integer> extractIds(EncodedInputStream is, PostingListInfo info, int idBase) {
+        return PositionalOnDiskInvertedIndex.extractPositionalIds(is, info, idBase);
+    }
+
+    @Override
+    public String getSeparator() {
+        return BiWordOutBlock.SEPARATOR;
+    }
+
+    // a document contains the phrase when its biwords follow each other, so only the positions
+    // of the biwords in the candidate documents are decoded
+    @Override
+    public List<Integer> filterPhrase(List<Integer> documentIds, List<String> terms) {
+        if (terms.size() < 3) return documentIds;
+        List<List<PositionalIndex.Entry>> biWords = new ArrayList<>(terms.size() - 1);
+        for (int i = 1; i < terms.size(); i++)
+            biWords.add(getPositions(terms.get(i - 1) + BiWordOutBlock.SEPARATOR + terms.get(i)));
+        int[] cursors = new int[biWords.size()];
+        List<Integer> result = new ArrayList<>();
+        for (int id : documentIds) {
+            List<List<Integer>> positions = new ArrayList<>(biWords.size());
+            for (int i = 0; i < biWords.size(); i++) {
+                List<PositionalIndex.Entry> entries = biWords.get(i);
+                while (cursors[i] < entries.size() && entries.get(cursors[i]).getDocumentId() < id)
+                    ++cursors[i];
+                if (cursors[i] == entries.size() || entries.get(cursors[i]).getDocumentId() != id) break;
+                positions.add(entries.get(cursors[i]).getPositions());
+            }
+            if (positions.size() == biWords.size() && containsPhrase(positions)) result.add(id);
+        }
+        return result;
+    }
+
+    private boolean containsPhrase(List<List<Integer>> positions) {
+        for (int start : positions.getFirst()) {
+            boolean found = true;
+            for (int i = 1; i < positions.size() && found; i++)
+                found = Collections.binarySearch(positions.get(i), start + i) >= 0;
+            if (found) return true;
+        }
+        return false;
+    }
+
+    public List<PositionalIndex.Entry> getPositions(String term) {
+        List<PositionalIndex.Entry> result = List.of();
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        for (Segment segment : segments) {
+            int index = segment.getPostingListInfoIndex(bytes);
+            if (index != -1) result = concat(result, PositionalOnDiskInvertedIndex.extractEntries(segment, index));
+        }
+        return result;
+    }
+
+    public static Builder builder(Path indexDirectory) {
+        return new Builder(indexDirectory);
+    }
+
+    public static Builder builder(String indexDirectory) {
+        return new Builder(indexDirectory);
+    }
+
+    public static class Builder {
+        private final Path indexDirectory;
+        private Tokenizer tokenizer = new DefaultTokenizer();
+        private int zonesCount = 1;
+        private Function<InputStream, EncodedInputStream> encodedInputStreamFactory = NotEncodedInputStream::new;
+        private Function<InputStream, EncodedInputStream> postingsInputStreamFactory;
+        private boolean memoryMapped;
+        private PostingListCache postingListCache = PostingListCache.NONE;
+
+        private Builder(Path indexDirectory) {
+            this.indexDirectory = indexDirectory;
+        }
+
+        private Builder(String indexDirectory) {
+            this.indexDirectory = Path.of(indexDirectory);
+        }
+
+        public Builder tokenizer(Tokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+            return this;
+        }
+
+        public Builder zonesCount(int zonesCount) {
+            this.zonesCount = zonesCount;
+            return this;
+        }
+
+        public Builder encodedInputStreamFactory(Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
+            this.encodedInputStreamFactory = encodedInputStreamFactory;
+            return this;
+        }
+
+        // the codec of the postings file, the index codec when not set
+        public Builder postingsInputStreamFactory(Function<InputStream, EncodedInputStream> postingsInputStreamFactory) {
+            this.postingsInputStreamFactory = postingsInputStreamFactory;
+            return this;
+        }
+
+        public Builder memoryMapped(boolean memoryMapped) {
+            this.memoryMapped = memoryMapped;
+            return this;
+        }
+
+        public Builder postingListCache(PostingListCache postingListCache) {
+            this.postingListCache = postingListCache;
+            return this;
+        }
+
+        public BiWordOnDiskInvertedIndex build() {
+            return new BiWordOnDiskInvertedIndex(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory,
+                    postingsInputStreamFactory != null ? postingsInputStreamFactory : encodedInputStreamFactory, memoryMapped,
+                    postingListCache);
+        }
+    }
+}
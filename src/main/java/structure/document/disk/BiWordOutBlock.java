@@ -0,0 +1,81 @@
+package structure.document.disk;
+
+import encoders.EncodedOutputStream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static structure.document.disk.Utils.*;
+
+// adds a "w1 w2" posting for every pair of adjacent terms of a zone, positioned at the first term of the pair
+public class BiWordOutBlock extends PositionalOutBlock {
+
+    public static final String SEPARATOR = " ";
+    private static final int BOXED_LONG_SIZE = objectSize(Long.BYTES);
+    private static final int BOXED_INTEGER_SIZE = objectSize(Integer.BYTES);
+
+    // biwords are not in the dictionary until the block is flushed, so they are keyed by negative local ids
+    private final Map<Long, Integer> biWordKeys;
+    private final List<Long> biWords;
+    private String[] biWordTerms;
+    private long biWordsSize;
+    private int lastId;
+    private int lastTermId;
+    private int lastPosition;
+
+    public BiWordOutBlock(int zonesCount) {
+        super(zonesCount);
+        this.biWordKeys = new HashMap<>();
+        this.biWords = new ArrayList<>();
+        this.lastId = -1;
+    }
+
+    @Override
+    public long size() {
+        return super.size() + biWordsSize + hashMapTableSize(biWordKeys.size()) + arraySize(biWords.size(), REFERENCE_SIZE);
+    }
+
+    @Override
+    public void add(int termId, int id, int position) {
+        super.add(termId, id, position);
+        if (id == lastId && position == lastPosition + 1)
+            super.add(biWordKey(lastTermId, termId), id, lastPosition);
+        lastId = id;
+        lastTermId = termId;
+        lastPosition = position;
+    }
+
+    private int biWordKey(int firstTermId, int secondTermId) {
+        long biWord = (long) firstTermId << 32 | secondTermId & 0xFFFFFFFFL;
+        Integer key = biWordKeys.get(biWord);
+        if (key != null) return key;
+        key = -biWords.size() - 1;
+        biWordKeys.put(biWord, key);
+        biWords.add(biWord);
+        biWordsSize += HASH_MAP_NODE_SIZE + BOXED_LONG_SIZE + BOXED_INTEGER_SIZE;
+        return key;
+    }
+
+    @Override
+    public BlockIndex flush(EncodedOutputStream os, TermDictionary dictionary) {
+        biWordTerms = new String[biWords.size()];
+        for (int i = 0; i < biWordTerms.length; i++) {
+            long biWord = biWords.get(i);
+            biWordTerms[i] = dictionary.term((int) (biWord >>> 32)) + SEPARATOR + dictionary.term((int) biWord);
+        }
+        return super.flush(os, dictionary);
+    }
+
+    @Override
+    protected String term(int key, TermDictionary dictionary) {
+        return key < 0 ? biWordTerms[-key - 1] : dictionary.term(key);
+    }
+
+    // flushing blocks add their biwords to the shared dictionary before it is sorted for the merge
+    @Override
+    protected int termId(int key, TermDictionary dictionary) {
+        return key < 0 ? dictionary.id(biWordTerms[-key - 1]) : key;
+    }
+}
@@ -0,0 +1,64 @@
+package structure.document.disk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BlockIndex {
+
+    public static final int INTERVAL = 64;
+
+    private final List<String> terms;
+    private long[] offsets;
+    private int termsCount;
+
+    public BlockIndex() {
+        terms = new ArrayList<>();
+        offsets = new long[16];
+    }
+
+    // range merges start at sampled offsets, the values a block codec holds back are flushed before them
+    public boolean samplesNext() {
+        return termsCount % INTERVAL == 0;
+    }
+
+    public void offer(String term, long offset) {
+        if (termsCount++ % INTERVAL != 0) return;
+        if (terms.size() == offsets.length)
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        offsets[terms.size()] = offset;
+        terms.add(term);
+    }
+
+    // samples restored from a checkpoint are added as they were offered
+    public void addSample(String term, long offset) {
+        if (terms.size() == offsets.length)
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        offsets[terms.size()] = offset;
+        terms.add(term);
+        termsCount = terms.size() * INTERVAL;
+    }
+
+    public long getOffset(int index) {
+        return offsets[index];
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public long floorOffset(String term) {
+        int left = 0; int right = terms.size() - 1;
+        long result = 0;
+        while (left <= right) {
+            int mid = left + (right - left) / 2;
+            if (TermDictionary.compare(terms.get(mid), term) <= 0) {
+                result = offsets[mid];
+                left = mid + 1;
+            }
+            else
+                right = mid - 1;
+        }
+        return result;
+    }
+}
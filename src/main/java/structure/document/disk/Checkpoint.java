@@ -0,0 +1,241 @@
+package structure.document.disk;
+
+import lombok.SneakyThrows;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+// records the progress of a build, so that an interrupted build can skip the documents already flushed into
+// run files and resume the merge after the last checkpointed term; every record is synced before it counts
+public class Checkpoint {
+
+    public static final String FILE_NAME = "checkpoint";
+    public static final String TERMS_FILE_NAME = "checkpoint-terms";
+
+    private final Path directory;
+    private final BitSet flushedDocuments;
+    private final Map<Integer, BlockIndex> blockIndexes;
+    private final Map<Integer, RangeState> ranges;
+    private final TermDictionary dictionary;
+    private List<String> bounds;
+    private boolean merged;
+    private int persistedTermsCount;
+
+    private Checkpoint(Path directory) {
+        this.directory = directory;
+        this.flushedDocuments = new BitSet();
+        this.blockIndexes = new HashMap<>();
+        this.ranges = new HashMap<>();
+        this.dictionary = new TermDictionary();
+    }
+
+    // a checkpoint left by a build of other documents is discarded together with its run files
+    @SneakyThrows
+    public static Checkpoint open(Path directory, String header, String blockFilePrefix) {
+        Checkpoint checkpoint = new Checkpoint(directory);
+        List<String> lines = readRecords(directory.resolve(FILE_NAME));
+        if (lines.isEmpty() || !lines.getFirst().equals(header)) {
+            Files.deleteIfExists(directory.resolve(FILE_NAME));
+            Files.deleteIfExists(directory.resolve(TERMS_FILE_NAME));
+            checkpoint.append(header);
+        }
+        else {
+            // terms are loaded first, so that the records can refer to them by id
+            int termsCount = 0;
+            for (String line : lines.subList(1, lines.size())) {
+                String[] parts = line.split(" ", -1);
+                if (parts[0].equals("block")) termsCount = Math.max(termsCount, Integer.parseInt(parts[2]));
+            }
+            checkpoint.loadTerms(termsCount);
+            for (String line : lines.subList(1, lines.size()))
+                checkpoint.parse(line.split(" ", -1));
+        }
+        checkpoint.deleteUnrecordedBlocks(blockFilePrefix);
+        return checkpoint;
+    }
+
+    // a record cut off by a crash has no line end yet and is ignored
+    @SneakyThrows
+    private static List<String> readRecords(Path file) {
+        if (!Files.exists(file)) return List.of();
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n');
+        return end == -1 ? List.of() : List.of(content.substring(0, end).split("\n"));
+    }
+
+    private void parse(String[] parts) {
+        switch (parts[0]) {
+            case "block" -> {
+                parseRanges(parts[3]);
+                blockIndexes.put(Integer.parseInt(parts[1]), parseBlockIndex(parts[4]));
+            }
+            case "bounds" -> bounds = List.of(parts).subList(1, parts.length).stream()
+                    .map(id -> dictionary.term(Integer.parseInt(id)))
+                    .toList();
+            case "range" -> ranges.put(Integer.parseInt(parts[1]), new RangeState(Integer.parseInt(parts[2]),
+                    Long.parseLong(parts[3]), Long.parseLong(parts[4]), Boolean.parseBoolean(parts[5])));
+            case "merged" -> merged = true;
+            default -> throw new IllegalStateException("Unknown checkpoint record: " + parts[0]);
+        }
+    }
+
+    private void parseRanges(String value) {
+        if (value.isEmpty()) return;
+        for (String range : value.split(",")) {
+            int dash = range.indexOf('-');
+            int from = Integer.parseInt(dash == -1 ? range : range.substring(0, dash));
+            int to = dash == -1 ? from : Integer.parseInt(range.substring(dash + 1));
+            flushedDocuments.set(from, to + 1);
+        }
+    }
+
+    private BlockIndex parseBlockIndex(String value) {
+        BlockIndex index = new BlockIndex();
+        if (value.isEmpty()) return index;
+        for (String sample : value.split(",")) {
+            int colon = sample.indexOf(':');
+            index.addSample(dictionary.term(Integer.parseInt(sample.substring(0, colon))), Long.parseLong(sample.substring(colon + 1)));
+        }
+        return index;
+    }
+
+    // terms persisted for a block that was never recorded are dropped, so that new terms are appended after the recorded ones
+    @SneakyThrows
+    private void loadTerms(int termsCount) {
+        Path file = directory.resolve(TERMS_FILE_NAME);
+        if (termsCount == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            for (int i = 0; i < termsCount; i++)
+                dictionary.id(is.readUTF());
+        } catch (EOFException e) {
+            throw new IllegalStateException("Checkpoint terms are missing", e);
+        }
+        Path temporary = directory.resolve(TERMS_FILE_NAME + ".tmp");
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            for (int id = 0; id < termsCount; id++)
+                os.writeUTF(dictionary.term(id));
+        }
+        Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        persistedTermsCount = termsCount;
+    }
+
+    @SneakyThrows
+    private void deleteUnrecordedBlocks(String blockFilePrefix) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(blockFilePrefix)) continue;
+                if (!blockIndexes.containsKey(Integer.parseInt(name.substring(blockFilePrefix.length()))))
+                    Files.delete(file);
+            }
+        }
+    }
+
+    public TermDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public BitSet getFlushedDocuments() {
+        return flushedDocuments;
+    }
+
+    public Map<Integer, BlockIndex> getBlockIndexes() {
+        return blockIndexes;
+    }
+
+    public List<String> getBounds() {
+        return bounds;
+    }
+
+    public RangeState getRange(int rangeId) {
+        return ranges.get(rangeId);
+    }
+
+    public boolean isMerged() {
+        return merged;
+    }
+
+    // the run file is complete at this point, terms it refers to are persisted before the block is recorded
+    @SneakyThrows
+    public synchronized void blockFlushed(int blockId, BitSet documents, BlockIndex index) {
+        int termsCount = dictionary.size();
+        if (termsCount > persistedTermsCount) {
+            try (FileOutputStream fos = new FileOutputStream(directory.resolve(TERMS_FILE_NAME).toFile(), true);
+                 DataOutputStream os = new DataOutputStream(new BufferedOutputStream(fos))) {
+                for (int id = persistedTermsCount; id < termsCount; id++)
+                    os.writeUTF(dictionary.awaitTerm(id));
+                os.flush();
+                fos.getFD().sync();
+            }
+            persistedTermsCount = termsCount;
+        }
+        StringBuilder samples = new StringBuilder();
+        for (int i = 0; i < index.getTerms().size(); i++) {
+            if (i > 0) samples.append(',');
+            samples.append(dictionary.id(index.getTerms().get(i))).append(':').append(index.getOffset(i));
+        }
+        append("block " + blockId + " " + termsCount + " " + documentRanges(documents) + " " + samples);
+    }
+
+    private static String documentRanges(BitSet documents) {
+        List<String> result = new ArrayList<>();
+        for (int from = documents.nextSetBit(0); from >= 0; ) {
+            int to = documents.nextClearBit(from) - 1;
+            result.add(from == to ? String.valueOf(from) : from + "-" + to);
+            from = documents.nextSetBit(to + 1);
+        }
+        return String.join(",", result);
+    }
+
+    public synchronized void boundsChosen(List<String> bounds) {
+        this.bounds = bounds;
+        append(bounds.stream().map(term -> " " + dictionary.id(term)).collect(Collectors.joining("", "bounds", "")));
+    }
+
+    public synchronized void rangeMerged(int rangeId, RangeState state) {
+        ranges.put(rangeId, state);
+        append("range " + rangeId + " " + state.lastTermId() + " " + state.postingsSize() + " " + state.vocabularySize() + " " + state.finished());
+    }
+
+    public synchronized void mergeFinished() {
+        merged = true;
+        append("merged");
+    }
+
+    @SneakyThrows
+    private void append(String line) {
+        try (FileOutputStream os = new FileOutputStream(directory.resolve(FILE_NAME).toFile(), true)) {
+            os.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            os.getFD().sync();
+        }
+    }
+
+    @SneakyThrows
+    public void delete() {
+        Files.deleteIfExists(directory.resolve(FILE_NAME));
+        Files.deleteIfExists(directory.resolve(TERMS_FILE_NAME));
+    }
+
+    // sizes of the files of a merge range once every term up to the last one has been written
+    public record RangeState(int lastTermId, long postingsSize, long vocabularySize, boolean finished) {}
+}
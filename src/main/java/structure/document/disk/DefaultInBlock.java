@@ -1,40 +1,56 @@
 package structure.document.disk;
 
-import encoders.EncodedInputStream;
 import encoders.EncodedOutputStream;
+import encoders.NumericInputStream;
 import encoders.VocabularyEncoder;
 import lombok.SneakyThrows;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.PriorityQueue;
 
 public class DefaultInBlock implements InBlock {
 
-    private final EncodedInputStream is;
-    private String currentTerm;
+    private final NumericInputStream is;
+    private final TermDictionary dictionary;
+    private int currentTermId;
     private int currentFrequency;
-    private List<Integer> currentDocumentIds;
+    // postings of the current term are read one at a time while the merge result is saved
+    private int remainingDocumentIds;
+    private int currentDocumentId;
 
-    public DefaultInBlock(EncodedInputStream is) {
+    public DefaultInBlock(NumericInputStream is, TermDictionary dictionary) {
         this.is = is;
+        this.dictionary = dictionary;
     }
 
     @SneakyThrows
     public boolean advance() {
-        currentTerm = is.readString();
+        while (remainingDocumentIds > 0) nextDocumentId();
+
+        currentTermId = is.readInt();
 
         currentFrequency = is.readInt();
 
-        int documentIdsCount = is.readInt();
-        currentDocumentIds = new ArrayList<>(documentIdsCount);
-        for (int i = 0; i < documentIdsCount; i++)
-            currentDocumentIds.add(is.readInt());
+        remainingDocumentIds = is.readInt();
+        currentDocumentId = 0;
 
         return !is.eofReached();
     }
 
+    private boolean nextDocumentId() {
+        if (remainingDocumentIds == 0) return false;
+        --remainingDocumentIds;
+        currentDocumentId += is.readInt();
+        return true;
+    }
+
+    @Override
+    public int getTermId() {
+        return currentTermId;
+    }
+
     @Override
     public MergeResult toMergeResult() {
         return new DefaultInBlockMergeResult(this);
@@ -48,58 +64,64 @@ public class DefaultInBlock implements InBlock {
     @Override
     public int compareTo(InBlock other) {
         if (other instanceof DefaultInBlock o)
-            return currentTerm.compareTo(o.currentTerm);
+            return Integer.compare(dictionary.rank(currentTermId), dictionary.rank(o.currentTermId));
         return -1;
     }
 
     private static class DefaultInBlockMergeResult implements MergeResult {
 
-        private final String term;
+        private final int termId;
+        private final TermDictionary dictionary;
         private int frequency;
-        private final LinkedList<Integer> documentIds;
+        private final List<DefaultInBlock> blocks;
 
         public DefaultInBlockMergeResult(DefaultInBlock block) {
-            this.term = block.currentTerm;
+            this.termId = block.currentTermId;
+            this.dictionary = block.dictionary;
             this.frequency = block.currentFrequency;
-            this.documentIds = new LinkedList<>(block.currentDocumentIds);
+            this.blocks = new ArrayList<>();
+            this.blocks.add(block);
         }
 
         @Override
         public boolean shouldMerge(InBlock block) {
-            return (block instanceof DefaultInBlock b) && term.equals(b.currentTerm);
+            return (block instanceof DefaultInBlock b) && termId == b.currentTermId;
         }
 
         @Override
         public void merge(InBlock block) {
             if (!(block instanceof DefaultInBlock b)) return;
             frequency += b.currentFrequency;
-            merge(documentIds, b.currentDocumentIds);
-        }
-
-        private void merge(LinkedList<Integer> left, List<Integer> right) {
-            ListIterator<Integer> leftIterator = left.listIterator();
-            for (int rightId : right) {
-                while (leftIterator.hasNext()) {
-                    int leftId = leftIterator.next();
-                    // ids in different blocks are never equal
-                    if (leftId > rightId) {
-                        leftIterator.previous();
-                        break;
-                    }
-                }
-                leftIterator.add(rightId);
-            }
+            blocks.add(b);
         }
 
         @Override
         public long save(long position, EncodedOutputStream osPostings, VocabularyEncoder osVocabulary) {
-            osVocabulary.write(term, frequency, position);
+            osVocabulary.write(dictionary.term(termId), frequency, position);
+            SkipListWriter skips = new SkipListWriter(position, frequency);
             int previousDocumentId = 0;
-            for (int documentId : documentIds) {
-                position += osPostings.write(documentId - previousDocumentId);
-                previousDocumentId = documentId;
+            if (blocks.size() == 1) {
+                DefaultInBlock block = blocks.getFirst();
+                while (block.nextDocumentId()) {
+                    skips.posting(position, previousDocumentId);
+                    position += osPostings.write(block.currentDocumentId - previousDocumentId);
+                    previousDocumentId = block.currentDocumentId;
+                }
+                return skips.finish(osPostings, position);
+            }
+            // ids in different blocks are never equal, but blocks of different threads interleave
+            PriorityQueue<DefaultInBlock> queue = new PriorityQueue<>(blocks.size(), Comparator.comparingInt(b -> b.currentDocumentId));
+            for (DefaultInBlock block : blocks) {
+                if (block.nextDocumentId()) queue.add(block);
+            }
+            while (!queue.isEmpty()) {
+                DefaultInBlock block = queue.poll();
+                skips.posting(position, previousDocumentId);
+                position += osPostings.write(block.currentDocumentId - previousDocumentId);
+                previousDocumentId = block.currentDocumentId;
+                if (block.nextDocumentId()) queue.add(block);
             }
-            return position;
+            return skips.finish(osPostings, position);
         }
     }
 }
@@ -14,14 +14,16 @@ import java.util.function.Function;
 public class DefaultOnDiskInvertedIndex extends OnDiskInvertedIndex {
 
     private DefaultOnDiskInvertedIndex(Path indexDirectory, Tokenizer tokenizer, int zonesCount,
-                                      Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
-        super(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory);
+                                      Function<InputStream, EncodedInputStream> encodedInputStreamFactory,
+                                      Function<InputStream, EncodedInputStream> postingsInputStreamFactory, boolean memoryMapped,
+                                       PostingListCache postingListCache) {
+        super(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory, postingsInputStreamFactory, memoryMapped, postingListCache);
     }
 
     @Override
-    protected List<Integer> extractIds(EncodedInputStream is, OnDiskInvertedIndex.PostingListInfo info) {
+    protected List<Integer> extractIds(EncodedInputStream is, OnDiskInvertedIndex.PostingListInfo info, int idBase) {
         List<Integer> result = new ArrayList<>(info.frequency());
-        int previousId = 0;
+        int previousId = idBase;
         for (int i = 0; i < info.frequency(); i++) {
             previousId += is.readInt();
             result.add(previousId);
@@ -29,6 +31,11 @@ public class DefaultOnDiskInvertedIndex extends OnDiskInvertedIndex {
         return result;
     }
 
+    @Override
+    public List<Integer> getDocumentIds(String term, List<Integer> among) {
+        return getDocumentIds(term, among, 1);
+    }
+
     public static Builder builder(Path indexDirectory) {
         return new Builder(indexDirectory);
     }
@@ -42,6 +49,9 @@ public class DefaultOnDiskInvertedIndex extends OnDiskInvertedIndex {
         private Tokenizer tokenizer = new DefaultTokenizer();
         private int zonesCount = 1;
         private Function<InputStream, EncodedInputStream> encodedInputStreamFactory = NotEncodedInputStream::new;
+        private Function<InputStream, EncodedInputStream> postingsInputStreamFactory;
+        private boolean memoryMapped;
+        private PostingListCache postingListCache = PostingListCache.NONE;
 
         private Builder(Path indexDirectory) {
             this.indexDirectory = indexDirectory;
@@ -66,8 +76,26 @@ public class DefaultOnDiskInvertedIndex extends OnDiskInvertedIndex {
             return this;
         }
 
+        // the codec of the postings file, the index codec when not set
+        public Builder postingsInputStreamFactory(Function<InputStream, EncodedInputStream> postingsInputStreamFactory) {
+            this.postingsInputStreamFactory = postingsInputStreamFactory;
+            return this;
+        }
+
+        public Builder memoryMapped(boolean memoryMapped) {
+            this.memoryMapped = memoryMapped;
+            return this;
+        }
+
+        public Builder postingListCache(PostingListCache postingListCache) {
+            this.postingListCache = postingListCache;
+            return this;
+        }
+
         public DefaultOnDiskInvertedIndex build() {
-            return new DefaultOnDiskInvertedIndex(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory);
+            return new DefaultOnDiskInvertedIndex(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory,
+                    postingsInputStreamFactory != null ? postingsInputStreamFactory : encodedInputStreamFactory, memoryMapped,
+                    postingListCache);
         }
     }
 }
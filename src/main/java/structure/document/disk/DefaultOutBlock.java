@@ -4,13 +4,14 @@ import encoders.EncodedOutputStream;
 
 import java.util.*;
 
+import static structure.document.disk.Utils.*;
+
 public class DefaultOutBlock implements OutBlock {
 
-    private static final int POSTING_SIZE = 20;
-    private static final int TERM_SIZE = 80;
+    private static final int TERM_INFO_SIZE = objectSize(Integer.BYTES + REFERENCE_SIZE);
     private final int zonesCount;
-    private final Map<String, TermInfo> block;
-    private long postingsSize;
+    private final Map<Integer, TermInfo> block;
+    private long entriesSize;
 
     public DefaultOutBlock(int zonesCount) {
         this.zonesCount = zonesCount;
@@ -19,7 +20,7 @@ public class DefaultOutBlock implements OutBlock {
 
     @Override
     public long size() {
-        return (long)block.size() * TERM_SIZE + postingsSize;
+        return entriesSize + hashMapTableSize(block.size());
     }
 
     @Override
@@ -28,14 +29,19 @@ public class DefaultOutBlock implements OutBlock {
     }
 
     @Override
-    public void add(String term, int id) {
-        TermInfo t = block.computeIfAbsent(term, _ -> new TermInfo(id));
+    public void add(int termId, int id) {
+        TermInfo t = block.get(termId);
+        if (t == null) {
+            t = new TermInfo();
+            block.put(termId, t);
+            entriesSize += HASH_MAP_NODE_SIZE + boxedIntegerSize(termId) + TERM_INFO_SIZE + ARRAY_LIST_SIZE + t.add(id);
+            return;
+        }
         int lastId = t.postingList.getLast();
         if (lastId == id) return;
-        t.postingList.add(id);
+        entriesSize += t.add(id);
         if (documentId(id) != documentId(lastId))
             ++t.frequency;
-        postingsSize += POSTING_SIZE;
     }
 
     private int documentId(int id) {
@@ -43,27 +49,44 @@ public class DefaultOutBlock implements OutBlock {
     }
 
     @Override
-    public void flush(EncodedOutputStream os) {
-        block.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(
-                e -> {
-                    TermInfo termInfo = e.getValue();
-                    os.write(e.getKey());
-                    os.write(termInfo.frequency);
-                    os.write(termInfo.postingList.size());
-                    for (int documentId : termInfo.postingList)
-                        os.write(documentId);
-                }
-        );
+    public BlockIndex flush(EncodedOutputStream os, TermDictionary dictionary) {
+        BlockIndex index = new BlockIndex();
+        long position = 0;
+        for (Map.Entry<Integer, TermInfo> e : block.entrySet().stream().sorted(Map.Entry.comparingByKey(Comparator.comparing(dictionary::term, TermDictionary::compare))).toList()) {
+            TermInfo termInfo = e.getValue();
+            if (index.samplesNext()) position += os.flush();
+            index.offer(dictionary.term(e.getKey()), position);
+            position += os.write(e.getKey());
+            position += os.write(termInfo.frequency);
+            position += os.write(termInfo.postingList.size());
+            int previousDocumentId = 0;
+            for (int documentId : termInfo.postingList) {
+                position += os.write(documentId - previousDocumentId);
+                previousDocumentId = documentId;
+            }
+        }
+        return index;
     }
 
     private static final class TermInfo {
         private int frequency;
         private final List<Integer> postingList;
+        private int capacity;
 
-        public TermInfo(int initialId) {
+        public TermInfo() {
             frequency = 1;
             postingList = new ArrayList<>();
-            postingList.add(initialId);
+        }
+
+        public long add(int id) {
+            long grown = boxedIntegerSize(id);
+            if (postingList.size() == capacity) {
+                int newCapacity = arrayListGrownCapacity(capacity);
+                grown += arraySize(newCapacity, REFERENCE_SIZE) - (capacity == 0 ? 0 : arraySize(capacity, REFERENCE_SIZE));
+                capacity = newCapacity;
+            }
+            postingList.add(id);
+            return grown;
         }
     }
 }
@@ -0,0 +1,15 @@
+package structure.document.disk;
+
+import encoders.EncodedOutputStream;
+
+public class DefaultPackedOutBlock extends PackedOutBlock {
+
+    public DefaultPackedOutBlock(int zonesCount) {
+        super(zonesCount);
+    }
+
+    @Override
+    protected int writePosting(EncodedOutputStream os, int idGap, int frequency) {
+        return os.write(idGap);
+    }
+}
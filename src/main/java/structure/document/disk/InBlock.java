@@ -9,6 +9,8 @@ public interface InBlock extends Comparable<InBlock>, Closeable {
 
     boolean advance();
 
+    int getTermId();
+
     MergeResult toMergeResult();
 
     interface MergeResult {
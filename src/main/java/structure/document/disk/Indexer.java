@@ -8,9 +8,15 @@ import java.util.Collection;
 public interface Indexer {
 
     String DOCUMENTS_MAP_FILE_NAME = "documents_map";
+    String DELETED_DOCUMENTS_FILE_NAME = "deleted_documents";
     String VOCABULARY_STRING_FILE_NAME = "vocabulary-string";
     String VOCABULARY_TABLE_FILE_NAME = "vocabulary-table";
+    String VOCABULARY_FST_FILE_NAME = "vocabulary-fst";
     String POSTINGS_FILE_NAME = "postings";
+    String SEGMENTS_FILE_NAME = "segments";
 
     void index(Collection<Document> documents, Tokenizer tokenizer);
+
+    // adds the documents as a new segment of the index; index() and append() calls on one indexer must not overlap
+    void append(Collection<Document> documents, Tokenizer tokenizer);
 }
@@ -0,0 +1,19 @@
+package structure.document.disk;
+
+// callbacks come from the inverter and merger threads concurrently, so implementations must be thread-safe
+public interface IndexingListener {
+
+    IndexingListener NONE = new IndexingListener() {};
+
+    enum Phase { DOCUMENTS_MAP, INVERSION, MERGE }
+
+    default void phaseStarted(Phase phase) {}
+
+    default void phaseFinished(Phase phase, long nanos) {}
+
+    default void documentInverted(int threadId, long bytes, int tokens) {}
+
+    default void blockFlushed(int blockId, long memorySize, long fileSize, long nanos) {}
+
+    default void termMerged(long postingsBytes) {}
+}
@@ -0,0 +1,168 @@
+package structure.document.disk;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// counters are striped adders, so recording stays cheap enough to leave on
+public class IndexingMetrics implements IndexingListener {
+
+    private final List<MemoryPoolMXBean> heapPools;
+    private final Map<Phase, Long> phaseNanos;
+    private final Map<Phase, Long> phasePeakHeap;
+    private final LongAdder documents;
+    private final LongAdder bytes;
+    private final Map<Integer, LongAdder> threadTokens;
+    private final LongAdder flushes;
+    private final LongAdder flushedMemory;
+    private final LongAdder flushedBytes;
+    private final LongAdder flushNanos;
+    private final LongAccumulator maxFlushNanos;
+    private final LongAdder mergedTerms;
+    private final LongAdder mergedBytes;
+
+    public IndexingMetrics() {
+        heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        phaseNanos = new EnumMap<>(Phase.class);
+        phasePeakHeap = new EnumMap<>(Phase.class);
+        documents = new LongAdder();
+        bytes = new LongAdder();
+        threadTokens = new ConcurrentHashMap<>();
+        flushes = new LongAdder();
+        flushedMemory = new LongAdder();
+        flushedBytes = new LongAdder();
+        flushNanos = new LongAdder();
+        maxFlushNanos = new LongAccumulator(Math::max, 0);
+        mergedTerms = new LongAdder();
+        mergedBytes = new LongAdder();
+    }
+
+    @Override
+    public synchronized void phaseStarted(Phase phase) {
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    // the peaks of the pools are summed, which overestimates the peak of the whole heap when the pools peak at different times
+    @Override
+    public synchronized void phaseFinished(Phase phase, long nanos) {
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools)
+            peakHeap += pool.getPeakUsage().getUsed();
+        phaseNanos.merge(phase, nanos, Long::sum);
+        phasePeakHeap.merge(phase, peakHeap, Math::max);
+    }
+
+    @Override
+    public void documentInverted(int threadId, long bytes, int tokens) {
+        documents.increment();
+        this.bytes.add(bytes);
+        threadTokens.computeIfAbsent(threadId, id -> new LongAdder()).add(tokens);
+    }
+
+    @Override
+    public void blockFlushed(int blockId, long memorySize, long fileSize, long nanos) {
+        flushes.increment();
+        flushedMemory.add(memorySize);
+        flushedBytes.add(fileSize);
+        flushNanos.add(nanos);
+        maxFlushNanos.accumulate(nanos);
+    }
+
+    @Override
+    public void termMerged(long postingsBytes) {
+        mergedTerms.increment();
+        mergedBytes.add(postingsBytes);
+    }
+
+    public synchronized long getPhaseNanos(Phase phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    public synchronized long getPeakHeap(Phase phase) {
+        return phasePeakHeap.getOrDefault(phase, 0L);
+    }
+
+    public long getDocuments() {
+        return documents.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getTokens() {
+        return threadTokens.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getTokens(int threadId) {
+        LongAdder tokens = threadTokens.get(threadId);
+        return tokens == null ? 0 : tokens.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    public long getFlushedMemory() {
+        return flushedMemory.sum();
+    }
+
+    public long getFlushedBytes() {
+        return flushedBytes.sum();
+    }
+
+    public long getFlushNanos() {
+        return flushNanos.sum();
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos.get();
+    }
+
+    public long getMergedTerms() {
+        return mergedTerms.sum();
+    }
+
+    public long getMergedBytes() {
+        return mergedBytes.sum();
+    }
+
+    public double getDocumentsPerSecond() {
+        return perSecond(getDocuments(), getPhaseNanos(Phase.INVERSION));
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(getBytes(), getPhaseNanos(Phase.INVERSION));
+    }
+
+    public double getTokensPerSecond(int threadId) {
+        return perSecond(getTokens(threadId), getPhaseNanos(Phase.INVERSION));
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Phase phase : Phase.values())
+            result.append(String.format("%s: %d ms, peak heap %d MB%n", phase, TimeUnit.NANOSECONDS.toMillis(getPhaseNanos(phase)), getPeakHeap(phase) >> 20));
+        result.append(String.format("Documents: %d (%.1f/s), %d bytes (%.1f/s)%n", getDocuments(), getDocumentsPerSecond(), getBytes(), getBytesPerSecond()));
+        threadTokens.keySet().stream().sorted().forEach(threadId ->
+                result.append(String.format("Inverter thread %d: %d tokens (%.1f/s)%n", threadId, getTokens(threadId), getTokensPerSecond(threadId))));
+        result.append(String.format("Block flushes: %d, %d bytes in memory, %d bytes on disk, %d ms total, %d ms max%n", getFlushes(),
+                getFlushedMemory(), getFlushedBytes(), TimeUnit.NANOSECONDS.toMillis(getFlushNanos()), TimeUnit.NANOSECONDS.toMillis(getMaxFlushNanos())));
+        result.append(String.format("Merged: %d terms, %d postings bytes", getMergedTerms(), getMergedBytes()));
+        return result.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package structure.document.disk;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// evicts the least recently used lists once their decoded size passes the budget; the keys are spread over segments
+// with a lock, an order and a share of the budget each, so that hits on different terms do not wait for one another.
+// Lists are decoded outside the locks, two threads missing the same term at once both decode it
+public class LruPostingListCache implements PostingListCache {
+
+    public static final int DEFAULT_SEGMENTS_COUNT = 16;
+
+    private final Segment[] segments;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    public LruPostingListCache(long maxBytes) {
+        this(maxBytes, DEFAULT_SEGMENTS_COUNT);
+    }
+
+    public LruPostingListCache(long maxBytes, int segmentsCount) {
+        if (segmentsCount <= 0) throw new IllegalArgumentException("Segments count must be positive: " + segmentsCount);
+        this.segments = new Segment[segmentsCount];
+        for (int i = 0; i < segmentsCount; i++)
+            segments[i] = new Segment(maxBytes / segmentsCount + (i < maxBytes % segmentsCount ? 1 : 0));
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(int termId, Kind kind, Supplier<List<T>> loader) {
+        Long key = (long) termId << 8 | kind.ordinal();
+        Segment segment = segments[Math.floorMod(Long.hashCode(key * 0x9E3779B97F4A7C15L), segments.length)];
+        synchronized (segment) {
+            Entry entry = segment.entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                return (List<T>) entry.postingList();
+            }
+        }
+        misses.increment();
+        List<T> postingList = Collections.unmodifiableList(loader.get());
+        long size = kind.bytes(postingList);
+        // a list larger than the whole segment would only evict everything else
+        if (size > segment.maxBytes) return postingList;
+        synchronized (segment) {
+            Entry previous = segment.entries.put(key, new Entry(postingList, size));
+            if (previous != null) segment.bytes -= previous.bytes();
+            segment.bytes += size;
+            Iterator<Map.Entry<Long, Entry>> iterator = segment.entries.entrySet().iterator();
+            while (segment.bytes > segment.maxBytes) {
+                segment.bytes -= iterator.next().getValue().bytes();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        return postingList;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                bytes += segment.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private static final class Segment {
+
+        private final long maxBytes;
+        private final LinkedHashMap<Long, Entry> entries;
+        private long bytes;
+
+        private Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+    }
+
+    private record Entry(List<?> postingList, long bytes) {}
+}
@@ -1,9 +1,10 @@
 package structure.document.disk;
 
+import encoders.ByteBufferInputStream;
 import encoders.EncodedInputStream;
 import encoders.VocabularyDecoder;
 import encoders.VocabularyFrontDecoder;
-import encoders.VocabularyFrontEncoder;
+import encoders.VocabularyFstDecoder;
 import lombok.SneakyThrows;
 import structure.document.ZoneIndex;
 import tokenizer.Tokenizer;
@@ -12,143 +13,176 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.InputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
 
 public abstract class OnDiskInvertedIndex implements ZoneIndex, Closeable {
 
+    protected final Path indexDirectory;
     protected final Tokenizer tokenizer;
     protected final int zonesCount;
     protected final Function<InputStream, EncodedInputStream> encodedInputStreamFactory;
-    protected final List<String> documentsMap;
-    protected final byte[] vocabularyString;
-    protected final List<VocabularyBlock> vocabularyBlocks;
-    protected final List<PostingListInfo> postingListInfos;
-    protected final ThreadLocal<VocabularyDecoder> vocabularyDecoder;
-    protected final ThreadLocal<FileChannel> postings;
+    protected final Function<InputStream, EncodedInputStream> postingsInputStreamFactory;
+    protected final boolean memoryMapped;
+    protected final PostingListCache postingListCache;
+    protected final List<Segment> segments;
+    protected final int documentsCount;
+    protected final int termsCount;
 
     public OnDiskInvertedIndex(Path indexDirectory, Tokenizer tokenizer, int zonesCount,
-                               Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
+                               Function<InputStream, EncodedInputStream> encodedInputStreamFactory,
+                               Function<InputStream, EncodedInputStream> postingsInputStreamFactory, boolean memoryMapped,
+                               PostingListCache postingListCache) {
+        this.indexDirectory = indexDirectory;
         this.tokenizer = tokenizer;
         this.zonesCount = zonesCount;
         this.encodedInputStreamFactory = encodedInputStreamFactory;
-        documentsMap = loadDocumentsMap(indexDirectory);
-        vocabularyString = loadVocabularyString(indexDirectory);
-        vocabularyBlocks = new ArrayList<>();
-        postingListInfos = new ArrayList<>();
-        loadVocabularyTable(indexDirectory);
-        vocabularyDecoder = ThreadLocal.withInitial(this::initVocabularyDecoder);
-        postings = ThreadLocal.withInitial(() -> initPostings(indexDirectory));
+        this.postingsInputStreamFactory = postingsInputStreamFactory;
+        this.memoryMapped = memoryMapped;
+        this.postingListCache = postingListCache;
+        segments = loadSegments(indexDirectory);
+        documentsCount = segments.isEmpty() ? 0 : segments.getLast().documentBase + segments.getLast().documentsMap.size();
+        termsCount = segments.size() == 1 ? segments.getFirst().termsCount() : assignTermIds();
     }
 
-    @SneakyThrows
-    private List<String> loadDocumentsMap(Path indexDirectory) {
-        return new ArrayList<>(Files.readAllLines(indexDirectory.resolve(Indexer.DOCUMENTS_MAP_FILE_NAME)));
-    }
-
-    @SneakyThrows
-    private byte[] loadVocabularyString(Path indexDirectory) {
-        return Files.readAllBytes(indexDirectory.resolve(Indexer.VOCABULARY_STRING_FILE_NAME));
+    private List<Segment> loadSegments(Path indexDirectory) {
+        List<Segments.Info> infos = Segments.read(indexDirectory);
+        if (infos.isEmpty())
+            return List.of(new Segment(indexDirectory, 0));
+        List<Segment> result = new ArrayList<>(infos.size());
+        int documentBase = 0;
+        for (Segments.Info info : infos) {
+            result.add(new Segment(indexDirectory.resolve(info.name()), documentBase));
+            documentBase += info.documentsCount();
+        }
+        return result;
     }
 
-    @SneakyThrows
-    private void loadVocabularyTable(Path indexDirectory) {
-        try (EncodedInputStream is = encodedInputStreamFactory.apply(new BufferedInputStream(Files.newInputStream(indexDirectory.resolve(Indexer.VOCABULARY_TABLE_FILE_NAME))))) {
-            while (true) {
-                int position = is.readInt();
-                if (is.eofReached()) break;
-                vocabularyBlocks.add(new VocabularyBlock(position));
-                for (int i = 0; i < VocabularyFrontEncoder.TERMS_PER_BLOCK; i++) {
-                    PostingListInfo info = new PostingListInfo(is.readInt(), is.readLong());
-                    if (is.eofReached()) break;
-                    postingListInfos.add(info);
-                }
+    private int assignTermIds() {
+        PriorityQueue<TermCursor> queue = new PriorityQueue<>();
+        for (Segment segment : segments) {
+            segment.termIds = new int[segment.termsCount()];
+            TermCursor cursor = new TermCursor(segment);
+            if (cursor.advance()) queue.add(cursor);
+        }
+        int termId = -1;
+        String previousTerm = null;
+        while (!queue.isEmpty()) {
+            TermCursor cursor = queue.poll();
+            if (!cursor.term.equals(previousTerm)) {
+                ++termId;
+                previousTerm = cursor.term;
             }
+            cursor.segment.termIds[cursor.index] = termId;
+            if (cursor.advance()) queue.add(cursor);
         }
-    }
-
-    @SneakyThrows
-    private VocabularyDecoder initVocabularyDecoder() {
-        return new VocabularyFrontDecoder(vocabularyString, encodedInputStreamFactory);
-    }
-
-    @SneakyThrows
-    private FileChannel initPostings(Path indexDirectory) {
-        return FileChannel.open(indexDirectory.resolve(Indexer.POSTINGS_FILE_NAME));
+        return termId + 1;
     }
 
     @Override
     public int documentsCount() {
-        return documentsMap.size();
+        return documentsCount;
     }
 
     @Override
     public int termsCount() {
-        return postingListInfos.size();
+        return termsCount;
     }
 
     @Override
     public String getDocumentName(int id) {
         int documentId = id / zonesCount;
-        if (documentId < 0 || documentId >= documentsMap.size())
+        if (documentId < 0 || documentId >= documentsCount)
             return null;
-        return documentsMap.get(documentId);
+        Segment segment = segmentOfDocument(documentId);
+        return segment.documentsMap.get(documentId - segment.documentBase);
     }
 
-    @Override
-    @SneakyThrows
-    public List<Integer> getDocumentIds(String term) {
-        int index = getPostingListInfoIndex(term);
-        if (index == -1) return List.of();
-        PostingListInfo info = postingListInfos.get(index);
-        byte[] list = readPostingList(index, info);
-        try (EncodedInputStream is = encodedInputStreamFactory.apply(new ByteArrayInputStream(list))) {
-            return extractIds(is, info);
-        }
-    }
-
-    protected int getPostingListInfoIndex(String term) {
-        int left = 0; int right = vocabularyBlocks.size() - 1;
-        while (left <= right) {
-            int mid = left + (right - left) / 2;
-            VocabularyBlock block = vocabularyBlocks.get(mid);
-            int index = block.indexInBlock(term);
-            if (index == -1)
-                right = mid - 1;
-            else if (index == VocabularyFrontEncoder.TERMS_PER_BLOCK)
-                left = mid + 1;
-            else if (index == -2)
-                break;
+    protected Segment segmentOfDocument(int documentId) {
+        int left = 0; int right = segments.size() - 1;
+        while (left < right) {
+            int mid = left + (right - left + 1) / 2;
+            if (segments.get(mid).documentBase <= documentId)
+                left = mid;
             else
-                return mid * VocabularyFrontEncoder.TERMS_PER_BLOCK + index;
+                right = mid - 1;
+        }
+        return segments.get(left);
+    }
+
+    // the id of the term in the whole index, -1 when no segment holds it
+    protected int getTermId(String term) {
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        for (Segment segment : segments) {
+            int index = segment.getPostingListInfoIndex(bytes);
+            if (index != -1) return segment.termId(index);
         }
         return -1;
     }
 
-    @SneakyThrows
-    protected byte[] readPostingList(int index, PostingListInfo info) {
-        byte[] ids = new byte[getPostingListSize(index)];
-        ByteBuffer buffer = ByteBuffer.wrap(ids);
-        postings.get().read(buffer, info.position());
-        return ids;
+    @Override
+    public List<Integer> getDocumentIds(String term) {
+        int termId = getTermId(term);
+        if (termId == -1) return List.of();
+        return postingListCache.get(termId, PostingListCache.Kind.IDS, () -> decodeDocumentIds(termId));
     }
 
     @SneakyThrows
-    protected int getPostingListSize(int index) {
-        if (index == postingListInfos.size() - 1)
-            return (int) (postings.get().size() - postingListInfos.getLast().position());
-        else
-            return (int) (postingListInfos.get(index + 1).position() - postingListInfos.get(index).position());
+    private List<Integer> decodeDocumentIds(int termId) {
+        List<Integer> result = List.of();
+        for (Segment segment : segments) {
+            int index = segment.getLocalTermIndex(termId);
+            if (index == -1) continue;
+            try (EncodedInputStream is = segment.openPostingList(index)) {
+                result = concat(result, extractIds(is, segment.getPostingListInfo(index), segment.idBase()));
+            }
+        }
+        return result;
+    }
+
+    protected List<Integer> getDocumentIds(String term, List<Integer> among, int postingSize) {
+        int termId = getTermId(term);
+        if (termId == -1 || among.isEmpty()) return List.of();
+        List<Integer> result = new ArrayList<>();
+        int i = 0;
+        for (Segment segment : segments) {
+            int end = (segment.documentBase + segment.documentsMap.size()) * zonesCount;
+            int index = segment.getLocalTermIndex(termId);
+            if (index != -1) {
+                PostingListIterator postings = segment.iteratePostingList(index, postingSize);
+                for (; i < among.size() && among.get(i) < end; i++) {
+                    if (!postings.advance(among.get(i))) break;
+                    if (postings.id() == among.get(i)) result.add(among.get(i));
+                }
+            }
+            while (i < among.size() && among.get(i) < end) i++;
+        }
+        return result;
+    }
+
+    protected <T> List<T> concat(List<T> left, List<T> right) {
+        if (left.isEmpty()) return right;
+        List<T> result = new ArrayList<>(left.size() + right.size());
+        result.addAll(left);
+        result.addAll(right);
+        return result;
     }
 
-    protected abstract List<Integer> extractIds(EncodedInputStream is, PostingListInfo info);
+    protected abstract List<Integer> extractIds(EncodedInputStream is, PostingListInfo info, int idBase);
 
     @Override
     public Tokenizer getTokenizer() {
@@ -157,13 +191,55 @@ public abstract class OnDiskInvertedIndex implements ZoneIndex, Closeable {
 
     @Override
     public List<Integer> getAllDocumentIds() {
-        return Stream.iterate(0, x -> x < documentsMap.size() * zonesCount, x -> x + 1).toList();
+        Stream<Integer> ids = Stream.iterate(0, x -> x < documentsCount * zonesCount, x -> x + 1);
+        return hasDeletedDocuments() ? ids.filter(x -> !isDeleted(x)).toList() : ids.toList();
+    }
+
+    @Override
+    public boolean hasDeletedDocuments() {
+        for (Segment segment : segments) {
+            if (!segment.deleted.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isDeleted(int id) {
+        int documentId = id / zonesCount;
+        if (documentId < 0 || documentId >= documentsCount)
+            return false;
+        Segment segment = segmentOfDocument(documentId);
+        return segment.deleted.get(documentId - segment.documentBase);
+    }
+
+    // postings of deleted documents stay on disk until their segment is merged or the index is rebuilt
+    public void delete(int id) {
+        int documentId = id / zonesCount;
+        if (documentId < 0 || documentId >= documentsCount)
+            return;
+        Segment segment = segmentOfDocument(documentId);
+        segment.delete(documentId - segment.documentBase);
     }
 
     @Override
     public int getDocumentFrequency(String term) {
-        int index = getPostingListInfoIndex(term);
-        return index == -1 ? 0 : postingListInfos.get(index).frequency();
+        int frequency = 0;
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        for (Segment segment : segments) {
+            int index = segment.getPostingListInfoIndex(bytes);
+            if (index != -1) frequency += segment.getFrequency(index);
+        }
+        return frequency;
+    }
+
+    // the terms of all segments that start with the prefix, in order
+    public List<String> getTermsWithPrefix(String prefix) {
+        if (segments.size() == 1) return segments.getFirst().getTermsWithPrefix(prefix);
+        return segments.stream()
+                .flatMap(segment -> segment.getTermsWithPrefix(prefix).stream())
+                .distinct()
+                .sorted(TermDictionary::compare)
+                .toList();
     }
 
     @Override
@@ -172,32 +248,318 @@ public abstract class OnDiskInvertedIndex implements ZoneIndex, Closeable {
     }
 
     @Override
-    @SneakyThrows
     public void close() {
-        postings.get().close();
+        segments.forEach(Segment::close);
     }
 
     protected record PostingListInfo(int frequency, long position) {}
 
-    protected final class VocabularyBlock {
-        private final int position;
+    protected final class Segment {
+        private final Path directory;
+        private final int documentBase;
+        private final List<String> documentsMap;
+        // a memory-mapped segment keeps its vocabulary terms and postings in the page cache instead of the heap,
+        // and posting lists are decoded in place
+        private final Arena arena;
+        private final VocabularyFormat format;
+        private final ByteBuffer vocabulary;
+        // the vocabulary table is held in primitive columns, so that every term costs bytes instead of objects
+        private final int termsPerBlock;
+        private int[] blockPositions;
+        private int[] frequencies;
+        private long[] positions;
+        private int termsCount;
+        // the UTF-8 bytes of the first term of every block, so that a lookup scans only the block that can hold the term
+        private final byte[][] blockHeads;
+        // positional reads are safe to share, and an open channel keeps serving the segment after a merge deletes its files
+        private final FileChannel postings;
+        private final MemorySegment mappedPostings;
+        // replaced on every deletion, so that lookups need no locking
+        private volatile BitSet deleted;
+        // maps terms of this segment to term ids of the whole index, null when the index has a single segment
+        private int[] termIds;
+
+        private Segment(Path directory, int documentBase) {
+            this.directory = directory;
+            this.documentBase = documentBase;
+            documentsMap = loadDocumentsMap(directory);
+            arena = memoryMapped ? Arena.ofShared() : null;
+            VocabularyInfo vocabularyInfo = VocabularyInfo.read(directory);
+            format = vocabularyInfo.format();
+            vocabulary = loadVocabulary(directory.resolve(vocabularyInfo.termsFileName()));
+            termsPerBlock = vocabularyInfo.termsPerBlock();
+            loadVocabularyTable(directory);
+            blockHeads = format == VocabularyFormat.FST ? null : loadBlockHeads();
+            postings = initPostings(directory);
+            mappedPostings = memoryMapped ? map(postings) : null;
+            deleted = Segments.readDeleted(directory);
+        }
+
+        // a merge may have replaced the segment since the index was opened, and a merge carries over only the deletions
+        // of the segments it replaces, so documents are deleted only while the manifest still lists the segment
+        private void delete(int documentId) {
+            Lock lock = Segments.lock(indexDirectory);
+            lock.lock();
+            try {
+                if (!isListed())
+                    throw new IllegalStateException("Segment " + directory.getFileName() + " of " + indexDirectory
+                            + " has been merged or replaced since the index was opened, reopen the index to delete its documents");
+                // other readers may have deleted documents of the segment too
+                BitSet deleted = Segments.readDeleted(directory);
+                deleted.set(documentId);
+                Segments.writeDeleted(directory, deleted);
+                this.deleted = deleted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // segments keep their local ids while earlier segments are merged, so only the name and the size are compared
+        private boolean isListed() {
+            List<Segments.Info> current = Segments.read(indexDirectory);
+            if (directory.equals(indexDirectory)) return current.isEmpty();
+            String name = directory.getFileName().toString();
+            return current.stream().anyMatch(info -> info.name().equals(name) && info.documentsCount() == documentsMap.size());
+        }
+
+        @SneakyThrows
+        private List<String> loadDocumentsMap(Path directory) {
+            return new ArrayList<>(Files.readAllLines(directory.resolve(Indexer.DOCUMENTS_MAP_FILE_NAME)));
+        }
+
+        @SneakyThrows
+        private ByteBuffer loadVocabulary(Path file) {
+            if (!memoryMapped)
+                return ByteBuffer.wrap(Files.readAllBytes(file));
+            try (FileChannel channel = FileChannel.open(file)) {
+                return map(channel).asByteBuffer();
+            }
+        }
+
+        @SneakyThrows
+        private MemorySegment map(FileChannel channel) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        }
+
+        @SneakyThrows
+        private void loadVocabularyTable(Path directory) {
+            blockPositions = new int[16];
+            frequencies = new int[16];
+            positions = new long[16];
+            int blocksCount = 0;
+            try (EncodedInputStream is = encodedInputStreamFactory.apply(new BufferedInputStream(Files.newInputStream(directory.resolve(Indexer.VOCABULARY_TABLE_FILE_NAME))))) {
+                while (true) {
+                    int position = is.readInt();
+                    if (is.eofReached()) break;
+                    if (blocksCount == blockPositions.length)
+                        blockPositions = Arrays.copyOf(blockPositions, blocksCount * 2);
+                    blockPositions[blocksCount++] = position;
+                    for (int i = 0; i < termsPerBlock; i++) {
+                        int frequency = is.readInt();
+                        long postingsPosition = is.readLong();
+                        if (is.eofReached()) break;
+                        if (termsCount == frequencies.length) {
+                            frequencies = Arrays.copyOf(frequencies, termsCount * 2);
+                            positions = Arrays.copyOf(positions, termsCount * 2);
+                        }
+                        frequencies[termsCount] = frequency;
+                        positions[termsCount++] = postingsPosition;
+                    }
+                }
+            }
+            blockPositions = Arrays.copyOf(blockPositions, blocksCount);
+            frequencies = Arrays.copyOf(frequencies, termsCount);
+            positions = Arrays.copyOf(positions, termsCount);
+        }
+
+        private byte[][] loadBlockHeads() {
+            VocabularyDecoder decoder = vocabularyDecoder();
+            byte[][] heads = new byte[blockPositions.length][];
+            for (int block = 0; block < heads.length; block++) {
+                decoder.seek(blockPositions[block]);
+                heads[block] = decoder.readTerm(decoder.readPrefix()).getBytes(StandardCharsets.UTF_8);
+            }
+            return heads;
+        }
+
+        // decoders keep the state of their reads, every lookup takes views of its own over the shared vocabulary
+        private VocabularyDecoder vocabularyDecoder() {
+            return new VocabularyFrontDecoder(vocabulary.duplicate(), encodedInputStreamFactory);
+        }
+
+        private VocabularyFstDecoder fstDecoder() {
+            return new VocabularyFstDecoder(vocabulary.duplicate());
+        }
+
+        @SneakyThrows
+        private FileChannel initPostings(Path directory) {
+            return FileChannel.open(directory.resolve(Indexer.POSTINGS_FILE_NAME));
+        }
+
+        public int termsCount() {
+            return termsCount;
+        }
+
+        public int idBase() {
+            return documentBase * zonesCount;
+        }
+
+        public PostingListInfo getPostingListInfo(int index) {
+            return new PostingListInfo(frequencies[index], positions[index]);
+        }
+
+        public int getFrequency(int index) {
+            return frequencies[index];
+        }
+
+        // terms are compared as unsigned UTF-8 bytes in place, which is the order the indexers write them in
+        public int getPostingListInfoIndex(byte[] term) {
+            if (format == VocabularyFormat.FST) return fstDecoder().lookup(term);
+            int block = floorBlock(term);
+            if (block == -1) return -1;
+            if (Arrays.equals(blockHeads[block], term)) return block * termsPerBlock;
+            // the head is compared already, the rest of the block is compared after it
+            VocabularyDecoder decoder = vocabularyDecoder();
+            decoder.seek(blockPositions[block]);
+            decoder.skipPrefix();
+            decoder.skipTerm();
+            int blockSize = Math.min(termsPerBlock, termsCount - block * termsPerBlock);
+            for (int i = 1; i < blockSize; i++) {
+                int comparison = decoder.compareTerm(term);
+                if (comparison == 0) return block * termsPerBlock + i;
+                if (comparison < 0) break;
+            }
+            return -1;
+        }
+
+        // the last block whose head is not greater than the term, -1 when the term precedes all blocks
+        private int floorBlock(byte[] term) {
+            int left = 0; int right = blockHeads.length - 1;
+            int block = -1;
+            while (left <= right) {
+                int mid = left + (right - left) / 2;
+                if (Arrays.compareUnsigned(blockHeads[mid], term) <= 0) {
+                    block = mid;
+                    left = mid + 1;
+                }
+                else
+                    right = mid - 1;
+            }
+            return block;
+        }
+
+        public List<String> getTermsWithPrefix(String prefix) {
+            List<String> result = new ArrayList<>();
+            byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+            if (format == VocabularyFormat.FST) {
+                VocabularyFstDecoder.Terms terms = fstDecoder().terms(bytes);
+                while (terms.next())
+                    result.add(terms.term());
+                return result;
+            }
+            // front-coded terms are decoded from the block that can hold the first of them until they pass the prefix
+            VocabularyDecoder decoder = vocabularyDecoder();
+            byte[] blockPrefix = null;
+            for (int index = Math.max(floorBlock(bytes), 0) * termsPerBlock; index < termsCount; index++) {
+                if (index % termsPerBlock == 0) {
+                    decoder.seek(blockPositions[index / termsPerBlock]);
+                    blockPrefix = decoder.readPrefix();
+                }
+                String term = decoder.readTerm(blockPrefix);
+                if (term.startsWith(prefix)) result.add(term);
+                else if (TermDictionary.compare(term, prefix) > 0) break;
+            }
+            return result;
+        }
+
+        public int termId(int index) {
+            return termIds == null ? index : termIds[index];
+        }
+
+        public int getLocalTermIndex(int termId) {
+            if (termIds == null)
+                return termId < termsCount() ? termId : -1;
+            int left = 0; int right = termIds.length - 1;
+            while (left <= right) {
+                int mid = left + (right - left) / 2;
+                if (termIds[mid] == termId) return mid;
+                else if (termIds[mid] < termId) left = mid + 1;
+                else right = mid - 1;
+            }
+            return -1;
+        }
+
+        public EncodedInputStream openPostingList(int index) {
+            if (memoryMapped) {
+                ByteBuffer postingList = mappedPostings.asSlice(positions[index], getPostingListSize(index)).asByteBuffer();
+                return postingsInputStreamFactory.apply(new ByteBufferInputStream(postingList));
+            }
+            return postingsInputStreamFactory.apply(new ByteArrayInputStream(readPostingList(index)));
+        }
+
+        public PostingListIterator iteratePostingList(int index, int postingSize) {
+            ByteBuffer postingList = memoryMapped
+                    ? mappedPostings.asSlice(positions[index], getPostingListSize(index)).asByteBuffer()
+                    : ByteBuffer.wrap(readPostingList(index));
+            return new PostingListIterator(postingList, frequencies[index], idBase(), postingSize, postingsInputStreamFactory);
+        }
+
+        @SneakyThrows
+        private byte[] readPostingList(int index) {
+            byte[] ids = new byte[getPostingListSize(index)];
+            ByteBuffer buffer = ByteBuffer.wrap(ids);
+            postings.read(buffer, positions[index]);
+            return ids;
+        }
 
-        private VocabularyBlock(int position) {
-            this.position = position;
+        @SneakyThrows
+        public int getPostingListSize(int index) {
+            if (index == termsCount - 1)
+                return (int) ((memoryMapped ? mappedPostings.byteSize() : postings.size()) - positions[index]);
+            else
+                return (int) (positions[index + 1] - positions[index]);
         }
 
-        public int indexInBlock(String value) {
-            VocabularyDecoder decoder = vocabularyDecoder.get();
-            decoder.seek(position);
-            byte[] prefix = decoder.readPrefix();
-            for (int i = 0; i < VocabularyFrontEncoder.TERMS_PER_BLOCK; i++) {
-                String term = decoder.readTerm(prefix);
-                int comparison = value.compareTo(term);
-                if (comparison == 0) return i;
-                else if (comparison < 0 && i == 0) return -1;
-                else if (comparison > 0 && i == VocabularyFrontEncoder.TERMS_PER_BLOCK - 1) return VocabularyFrontEncoder.TERMS_PER_BLOCK;
+        @SneakyThrows
+        private void close() {
+            postings.close();
+            if (arena != null) arena.close();
+        }
+    }
+
+    private static final class TermCursor implements Comparable<TermCursor> {
+        private final Segment segment;
+        private final VocabularyDecoder decoder;
+        private final VocabularyFstDecoder.Terms terms;
+        private byte[] prefix;
+        private String term;
+        private int index;
+
+        private TermCursor(Segment segment) {
+            this.segment = segment;
+            this.decoder = segment.vocabularyDecoder();
+            this.terms = segment.format == VocabularyFormat.FST ? segment.fstDecoder().terms(new byte[0]) : null;
+            this.index = -1;
+        }
+
+        public boolean advance() {
+            if (++index >= segment.termsCount()) return false;
+            if (terms != null) {
+                terms.next();
+                term = terms.term();
+                return true;
             }
-            return -2;
+            if (index % segment.termsPerBlock == 0) {
+                decoder.seek(segment.blockPositions[index / segment.termsPerBlock]);
+                prefix = decoder.readPrefix();
+            }
+            term = decoder.readTerm(prefix);
+            return true;
+        }
+
+        @Override
+        public int compareTo(TermCursor other) {
+            return TermDictionary.compare(term, other.term);
         }
     }
 }
@@ -8,7 +8,12 @@ public interface OutBlock {
 
     boolean isEmpty();
 
-    void add(String term, int documentId);
+    void add(int termId, int documentId);
 
-    void flush(EncodedOutputStream os);
+    // positions are counted from the start of the zone, blocks that do not store positions ignore them
+    default void add(int termId, int documentId, int position) {
+        add(termId, documentId);
+    }
+
+    BlockIndex flush(EncodedOutputStream os, TermDictionary dictionary);
 }
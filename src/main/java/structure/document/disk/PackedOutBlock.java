@@ -0,0 +1,135 @@
+package structure.document.disk;
+
+import encoders.EncodedOutputStream;
+
+import java.util.Arrays;
+
+import static structure.document.disk.Utils.*;
+
+public abstract class PackedOutBlock implements OutBlock {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int INITIAL_TABLE_CAPACITY = 64;
+    private static final int BUFFER_SIZE = objectSize(2 * Integer.BYTES + REFERENCE_SIZE);
+    private final int zonesCount;
+    // open addressing table keyed by term ids, so that no term is boxed
+    private int[] termIds;
+    private PostingBuffer[] buffers;
+    private int termsCount;
+    private long entriesSize;
+
+    public PackedOutBlock(int zonesCount) {
+        this.zonesCount = zonesCount;
+        this.termIds = new int[INITIAL_TABLE_CAPACITY];
+        this.buffers = new PostingBuffer[INITIAL_TABLE_CAPACITY];
+    }
+
+    @Override
+    public long size() {
+        return entriesSize + arraySize(termIds.length, Integer.BYTES) + arraySize(buffers.length, REFERENCE_SIZE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return termsCount == 0;
+    }
+
+    @Override
+    public void add(int termId, int id) {
+        int slot = tableSlot(termIds, buffers, termId);
+        PostingBuffer buffer = buffers[slot];
+        if (buffer == null) {
+            termIds[slot] = termId;
+            buffers[slot] = new PostingBuffer(id);
+            entriesSize += BUFFER_SIZE + arraySize(INITIAL_CAPACITY, Integer.BYTES);
+            if (++termsCount * 2 > buffers.length) grow();
+            return;
+        }
+        int lastId = buffer.lastId();
+        if (lastId == id) {
+            buffer.incrementLastFrequency();
+            return;
+        }
+        entriesSize += buffer.add(id);
+        if (documentId(id) != documentId(lastId))
+            ++buffer.frequency;
+    }
+
+    private void grow() {
+        int[] newTermIds = new int[termIds.length * 2];
+        PostingBuffer[] newBuffers = new PostingBuffer[buffers.length * 2];
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] == null) continue;
+            int slot = tableSlot(newTermIds, newBuffers, termIds[i]);
+            newTermIds[slot] = termIds[i];
+            newBuffers[slot] = buffers[i];
+        }
+        termIds = newTermIds;
+        buffers = newBuffers;
+    }
+
+    private int documentId(int id) {
+        return id - id % zonesCount;
+    }
+
+    @Override
+    public BlockIndex flush(EncodedOutputStream os, TermDictionary dictionary) {
+        int[] slots = new int[termsCount];
+        for (int i = 0, j = 0; i < buffers.length; i++) {
+            if (buffers[i] != null) slots[j++] = i;
+        }
+        sort(slots, (left, right) -> TermDictionary.compare(dictionary.term(termIds[left]), dictionary.term(termIds[right])));
+        BlockIndex index = new BlockIndex();
+        long position = 0;
+        for (int slot : slots) {
+            PostingBuffer buffer = buffers[slot];
+            if (index.samplesNext()) position += os.flush();
+            index.offer(dictionary.term(termIds[slot]), position);
+            position += os.write(termIds[slot]);
+            position += os.write(buffer.frequency);
+            position += os.write(buffer.length / 2);
+            int previousId = 0;
+            for (int i = 0; i < buffer.length; i += 2) {
+                position += writePosting(os, buffer.postings[i] - previousId, buffer.postings[i + 1]);
+                previousId = buffer.postings[i];
+            }
+        }
+        return index;
+    }
+
+    protected abstract int writePosting(EncodedOutputStream os, int idGap, int frequency);
+
+    private static final class PostingBuffer {
+        private int frequency;
+        // document ids and term frequencies packed side by side
+        private int[] postings;
+        private int length;
+
+        public PostingBuffer(int initialId) {
+            frequency = 1;
+            postings = new int[INITIAL_CAPACITY];
+            postings[0] = initialId;
+            postings[1] = 1;
+            length = 2;
+        }
+
+        public int lastId() {
+            return postings[length - 2];
+        }
+
+        public void incrementLastFrequency() {
+            ++postings[length - 1];
+        }
+
+        public long add(int id) {
+            long grown = 0;
+            if (length == postings.length) {
+                grown = arraySize(postings.length * 2, Integer.BYTES) - arraySize(postings.length, Integer.BYTES);
+                postings = Arrays.copyOf(postings, postings.length * 2);
+            }
+            postings[length++] = id;
+            postings[length++] = 1;
+            return grown;
+        }
+    }
+}
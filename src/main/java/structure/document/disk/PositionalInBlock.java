@@ -0,0 +1,158 @@
+package structure.document.disk;
+
+import encoders.EncodedOutputStream;
+import encoders.NumericInputStream;
+import encoders.VBEncodedOutputStream;
+import encoders.VocabularyEncoder;
+import lombok.SneakyThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class PositionalInBlock implements InBlock {
+
+    private final NumericInputStream is;
+    private final TermDictionary dictionary;
+    private int currentTermId;
+    private int currentFrequency;
+    // postings of the current term are read one at a time while the merge result is saved
+    private int remainingInfos;
+    private int currentId;
+    private int currentTermFrequency;
+    private int[] currentPositions;
+
+    public PositionalInBlock(NumericInputStream is, TermDictionary dictionary) {
+        this.is = is;
+        this.dictionary = dictionary;
+        this.currentPositions = new int[16];
+    }
+
+    @SneakyThrows
+    public boolean advance() {
+        while (remainingInfos > 0) nextInfo();
+
+        currentTermId = is.readInt();
+
+        currentFrequency = is.readInt();
+
+        remainingInfos = is.readInt();
+        currentId = 0;
+
+        return !is.eofReached();
+    }
+
+    private boolean nextInfo() {
+        if (remainingInfos == 0) return false;
+        --remainingInfos;
+        currentId += is.readInt();
+        currentTermFrequency = is.readInt();
+        if (currentTermFrequency > currentPositions.length)
+            currentPositions = Arrays.copyOf(currentPositions, Math.max(currentTermFrequency, currentPositions.length * 2));
+        int position = 0;
+        for (int i = 0; i < currentTermFrequency; i++) {
+            position += is.readInt();
+            currentPositions[i] = position;
+        }
+        return true;
+    }
+
+    @Override
+    public int getTermId() {
+        return currentTermId;
+    }
+
+    @Override
+    public MergeResult toMergeResult() {
+        return new PositionalBlockMergeResult(this);
+    }
+
+    @SneakyThrows
+    public void close() {
+        is.close();
+    }
+
+    @Override
+    public int compareTo(InBlock other) {
+        if (other instanceof PositionalInBlock o)
+            return Integer.compare(dictionary.rank(currentTermId), dictionary.rank(o.currentTermId));
+        return -1;
+    }
+
+    private static class PositionalBlockMergeResult implements MergeResult {
+
+        private final int termId;
+        private final TermDictionary dictionary;
+        private int frequency;
+        private final List<PositionalInBlock> blocks;
+        private final ByteArrayOutputStream positions;
+        private final EncodedOutputStream osPositions;
+
+        public PositionalBlockMergeResult(PositionalInBlock block) {
+            this.termId = block.currentTermId;
+            this.dictionary = block.dictionary;
+            this.frequency = block.currentFrequency;
+            this.blocks = new ArrayList<>();
+            this.blocks.add(block);
+            this.positions = new ByteArrayOutputStream();
+            this.osPositions = new VBEncodedOutputStream(positions);
+        }
+
+        @Override
+        public boolean shouldMerge(InBlock block) {
+            return (block instanceof PositionalInBlock b) && termId == b.currentTermId;
+        }
+
+        @Override
+        public void merge(InBlock block) {
+            if (!(block instanceof PositionalInBlock b)) return;
+            frequency += b.currentFrequency;
+            blocks.add(b);
+        }
+
+        @Override
+        public long save(long position, EncodedOutputStream osPostings, VocabularyEncoder osVocabulary) {
+            osVocabulary.write(dictionary.term(termId), frequency, position);
+            int previousDocumentId = 0;
+            if (blocks.size() == 1) {
+                PositionalInBlock block = blocks.getFirst();
+                while (block.nextInfo()) {
+                    position += write(block, block.currentId - previousDocumentId, osPostings);
+                    previousDocumentId = block.currentId;
+                }
+                return position + osPostings.flush();
+            }
+            // ids in different blocks are never equal, but blocks of different threads interleave
+            PriorityQueue<PositionalInBlock> queue = new PriorityQueue<>(blocks.size(), Comparator.comparingInt(b -> b.currentId));
+            for (PositionalInBlock block : blocks) {
+                if (block.nextInfo()) queue.add(block);
+            }
+            while (!queue.isEmpty()) {
+                PositionalInBlock block = queue.poll();
+                position += write(block, block.currentId - previousDocumentId, osPostings);
+                previousDocumentId = block.currentId;
+                if (block.nextInfo()) queue.add(block);
+            }
+            return position + osPostings.flush();
+        }
+
+        // positions are always VB encoded and prefixed with their length in bytes,
+        // so that readers can skip them until a document survives the intersection
+        private int write(PositionalInBlock block, int idGap, EncodedOutputStream osPostings) {
+            positions.reset();
+            int previousPosition = 0;
+            for (int i = 0; i < block.currentTermFrequency; i++) {
+                osPositions.write(block.currentPositions[i] - previousPosition);
+                previousPosition = block.currentPositions[i];
+            }
+            int written = osPostings.write(idGap);
+            written += osPostings.write(block.currentTermFrequency);
+            written += osPostings.write(positions.size());
+            written += osPostings.write(positions.toByteArray(), 0, positions.size());
+            return written;
+        }
+    }
+}
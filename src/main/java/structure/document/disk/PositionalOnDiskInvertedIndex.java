@@ -0,0 +1,199 @@
+package structure.document.disk;
+
+import encoders.EncodedInputStream;
+import encoders.NotEncodedInputStream;
+import encoders.VBEncodedInputStream;
+import lombok.SneakyThrows;
+import structure.document.PositionalIndex;
+import tokenizer.DefaultTokenizer;
+import tokenizer.Tokenizer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+
+public class PositionalOnDiskInvertedIndex extends OnDiskInvertedIndex implements PositionalIndex {
+
+    private PositionalOnDiskInvertedIndex(Path indexDirectory, Tokenizer tokenizer, int zonesCount,
+                                          Function<InputStream, EncodedInputStream> encodedInputStreamFactory,
+                                          Function<InputStream, EncodedInputStream> postingsInputStreamFactory, boolean memoryMapped,
+                                          PostingListCache postingListCache) {
+        super(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory, postingsInputStreamFactory, memoryMapped, postingListCache);
+    }
+
+    @Override
+    protected List<Integer> extractIds(EncodedInputStream is, PostingListInfo info, int idBase) {
+        return extractPositionalIds(is, info, idBase);
+    }
+
+    // shared with the biword index, which stores its postings in the same layout
+    static List<Integer> extractPositionalIds(EncodedInputStream is, PostingListInfo info, int idBase) {
+        List<Integer> result = new ArrayList<>(info.frequency());
+        byte[] skipped = new byte[16];
+        int previousId = idBase;
+        for (int i = 0; i < info.frequency(); i++) {
+            previousId += is.readInt();
+            is.readInt(); // skip frequency
+            int length = is.readInt();
+            if (length > skipped.length) skipped = new byte[Math.max(length, skipped.length * 2)];
+            is.read(skipped, 0, length);
+            result.add(previousId);
+        }
+        return result;
+    }
+
+    @Override
+    public List<PositionalIndex.Entry> getPositions(String term) {
+        List<PositionalIndex.Entry> result = List.of();
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        for (Segment segment : segments) {
+            int index = segment.getPostingListInfoIndex(bytes);
+            if (index != -1) result = concat(result, extractEntries(segment, index));
+        }
+        return result;
+    }
+
+    // positions are copied out undecoded, they are decoded only for the documents whose positions are asked for
+    @SneakyThrows
+    static List<PositionalIndex.Entry> extractEntries(Segment segment, int index) {
+        PostingListInfo info = segment.getPostingListInfo(index);
+        byte[] positions = new byte[segment.getPostingListSize(index)];
+        try (EncodedInputStream is = segment.openPostingList(index)) {
+            List<PositionalIndex.Entry> result = new ArrayList<>(info.frequency());
+            int previousId = segment.idBase();
+            int offset = 0;
+            for (int i = 0; i < info.frequency(); i++) {
+                previousId += is.readInt();
+                int frequency = is.readInt();
+                int length = is.readInt();
+                is.read(positions, offset, length);
+                result.add(new Entry(previousId, frequency, positions, offset, length));
+                offset += length;
+            }
+            return result;
+        }
+    }
+
+    private static final class Entry implements PositionalIndex.Entry {
+        private final int id;
+        private final int frequency;
+        private final byte[] encodedPositions;
+        private final int offset;
+        private final int length;
+        private List<Integer> positions;
+
+        private Entry(int id, int frequency, byte[] encodedPositions, int offset, int length) {
+            this.id = id;
+            this.frequency = frequency;
+            this.encodedPositions = encodedPositions;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int getDocumentId() {
+            return id;
+        }
+
+        @Override
+        public int getTermFrequency() {
+            return frequency;
+        }
+
+        @Override
+        @SneakyThrows
+        public List<Integer> getPositions() {
+            if (positions != null) return positions;
+            List<Integer> result = new ArrayList<>(frequency);
+            try (EncodedInputStream is = new VBEncodedInputStream(new ByteArrayInputStream(encodedPositions, offset, length))) {
+                int position = 0;
+                for (int i = 0; i < frequency; i++) {
+                    position += is.readInt();
+                    result.add(position);
+                }
+            }
+            positions = result;
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PositionalIndex.Entry entry)) return false;
+            return id == entry.getDocumentId() && Objects.equals(getPositions(), entry.getPositions());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, getPositions());
+        }
+    }
+
+    public static Builder builder(Path indexDirectory) {
+        return new Builder(indexDirectory);
+    }
+
+    public static Builder builder(String indexDirectory) {
+        return new Builder(indexDirectory);
+    }
+
+    public static class Builder {
+        private final Path indexDirectory;
+        private Tokenizer tokenizer = new DefaultTokenizer();
+        private int zonesCount = 1;
+        private Function<InputStream, EncodedInputStream> encodedInputStreamFactory = NotEncodedInputStream::new;
+        private Function<InputStream, EncodedInputStream> postingsInputStreamFactory;
+        private boolean memoryMapped;
+        private PostingListCache postingListCache = PostingListCache.NONE;
+
+        private Builder(Path indexDirectory) {
+            this.indexDirectory = indexDirectory;
+        }
+
+        private Builder(String indexDirectory) {
+            this.indexDirectory = Path.of(indexDirectory);
+        }
+
+        public Builder tokenizer(Tokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+            return this;
+        }
+
+        public Builder zonesCount(int zonesCount) {
+            this.zonesCount = zonesCount;
+            return this;
+        }
+
+        public Builder encodedInputStreamFactory(Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
+            this.encodedInputStreamFactory = encodedInputStreamFactory;
+            return this;
+        }
+
+        // the codec of the postings file, the index codec when not set
+        public Builder postingsInputStreamFactory(Function<InputStream, EncodedInputStream> postingsInputStreamFactory) {
+            this.postingsInputStreamFactory = postingsInputStreamFactory;
+            return this;
+        }
+
+        public Builder memoryMapped(boolean memoryMapped) {
+            this.memoryMapped = memoryMapped;
+            return this;
+        }
+
+        public Builder postingListCache(PostingListCache postingListCache) {
+            this.postingListCache = postingListCache;
+            return this;
+        }
+
+        public PositionalOnDiskInvertedIndex build() {
+            return new PositionalOnDiskInvertedIndex(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory,
+                    postingsInputStreamFactory != null ? postingsInputStreamFactory : encodedInputStreamFactory, memoryMapped,
+                    postingListCache);
+        }
+    }
+}
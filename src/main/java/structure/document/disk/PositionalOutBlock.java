@@ -0,0 +1,181 @@
+package structure.document.disk;
+
+import encoders.EncodedOutputStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static structure.document.disk.Utils.*;
+
+public class PositionalOutBlock implements OutBlock {
+
+    private static final int TERM_INFO_SIZE = objectSize(Integer.BYTES + REFERENCE_SIZE);
+    private static final int DOCUMENT_INFO_SIZE = objectSize(2 * Integer.BYTES + REFERENCE_SIZE);
+    private static final int INITIAL_POSITIONS_CAPACITY = 2;
+    private static final int INITIAL_TABLE_CAPACITY = 64;
+    private final int zonesCount;
+    // open addressing table keyed by term ids, as in PackedOutBlock
+    private int[] keys;
+    private TermInfo[] infos;
+    private int termsCount;
+    private long entriesSize;
+    private int runningId;
+    private int runningPosition;
+
+    public PositionalOutBlock(int zonesCount) {
+        this.zonesCount = zonesCount;
+        this.keys = new int[INITIAL_TABLE_CAPACITY];
+        this.infos = new TermInfo[INITIAL_TABLE_CAPACITY];
+        this.runningId = -1;
+    }
+
+    @Override
+    public long size() {
+        return entriesSize + arraySize(keys.length, Integer.BYTES) + arraySize(infos.length, REFERENCE_SIZE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return termsCount == 0;
+    }
+
+    // terms added without a position follow one another in the zone, from position 0 of every new id
+    @Override
+    public void add(int termId, int id) {
+        if (id != runningId) {
+            runningId = id;
+            runningPosition = 0;
+        }
+        add(termId, id, runningPosition++);
+    }
+
+    @Override
+    public void add(int termId, int id, int position) {
+        int slot = tableSlot(keys, infos, termId);
+        TermInfo t = infos[slot];
+        if (t == null) {
+            t = new TermInfo();
+            keys[slot] = termId;
+            infos[slot] = t;
+            entriesSize += TERM_INFO_SIZE + ARRAY_LIST_SIZE + t.add(id, position);
+            if (++termsCount * 2 > infos.length) grow();
+            return;
+        }
+        DocumentInfo last = t.postingList.getLast();
+        if (last.id == id) {
+            entriesSize += last.add(position);
+        }
+        else {
+            entriesSize += t.add(id, position);
+            if (documentId(id) != documentId(last.id))
+                ++t.frequency;
+        }
+    }
+
+    private void grow() {
+        int[] newKeys = new int[keys.length * 2];
+        TermInfo[] newInfos = new TermInfo[infos.length * 2];
+        for (int i = 0; i < infos.length; i++) {
+            if (infos[i] == null) continue;
+            int slot = tableSlot(newKeys, newInfos, keys[i]);
+            newKeys[slot] = keys[i];
+            newInfos[slot] = infos[i];
+        }
+        keys = newKeys;
+        infos = newInfos;
+    }
+
+    private int documentId(int id) {
+        return id - id % zonesCount;
+    }
+
+    // postings hold the gap encoded id, the term frequency and the gap encoded positions
+    @Override
+    public BlockIndex flush(EncodedOutputStream os, TermDictionary dictionary) {
+        int[] slots = new int[termsCount];
+        for (int i = 0, j = 0; i < infos.length; i++) {
+            if (infos[i] != null) slots[j++] = i;
+        }
+        String[] terms = new String[infos.length];
+        for (int slot : slots)
+            terms[slot] = term(keys[slot], dictionary);
+        sort(slots, (left, right) -> TermDictionary.compare(terms[left], terms[right]));
+        BlockIndex index = new BlockIndex();
+        long position = 0;
+        for (int slot : slots) {
+            TermInfo termInfo = infos[slot];
+            if (index.samplesNext()) position += os.flush();
+            index.offer(terms[slot], position);
+            position += os.write(termId(keys[slot], dictionary));
+            position += os.write(termInfo.frequency);
+            position += os.write(termInfo.postingList.size());
+            int previousDocumentId = 0;
+            for (DocumentInfo info : termInfo.postingList) {
+                position += os.write(info.id - previousDocumentId);
+                previousDocumentId = info.id;
+                position += os.write(info.frequency);
+                int previousPosition = 0;
+                for (int i = 0; i < info.frequency; i++) {
+                    position += os.write(info.positions[i] - previousPosition);
+                    previousPosition = info.positions[i];
+                }
+            }
+        }
+        return index;
+    }
+
+    // keys of the block are term ids unless a subclass adds keys of its own
+    protected String term(int key, TermDictionary dictionary) {
+        return dictionary.term(key);
+    }
+
+    protected int termId(int key, TermDictionary dictionary) {
+        return key;
+    }
+
+    private static final class TermInfo {
+        private int frequency;
+        private final List<DocumentInfo> postingList;
+        private int capacity;
+
+        public TermInfo() {
+            frequency = 1;
+            postingList = new ArrayList<>();
+        }
+
+        public long add(int id, int position) {
+            long grown = DOCUMENT_INFO_SIZE + arraySize(INITIAL_POSITIONS_CAPACITY, Integer.BYTES);
+            if (postingList.size() == capacity) {
+                int newCapacity = arrayListGrownCapacity(capacity);
+                grown += arraySize(newCapacity, REFERENCE_SIZE) - (capacity == 0 ? 0 : arraySize(capacity, REFERENCE_SIZE));
+                capacity = newCapacity;
+            }
+            postingList.add(new DocumentInfo(id, position));
+            return grown;
+        }
+    }
+
+    private static final class DocumentInfo {
+        private final int id;
+        private int frequency;
+        private int[] positions;
+
+        public DocumentInfo(int id, int position) {
+            this.id = id;
+            this.frequency = 1;
+            this.positions = new int[INITIAL_POSITIONS_CAPACITY];
+            this.positions[0] = position;
+        }
+
+        public long add(int position) {
+            long grown = 0;
+            if (frequency == positions.length) {
+                grown = arraySize(positions.length * 2, Integer.BYTES) - arraySize(positions.length, Integer.BYTES);
+                positions = Arrays.copyOf(positions, positions.length * 2);
+            }
+            positions[frequency++] = position;
+            return grown;
+        }
+    }
+}
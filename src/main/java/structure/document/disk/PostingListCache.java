@@ -0,0 +1,48 @@
+package structure.document.disk;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static structure.document.disk.Utils.*;
+
+// decoded posting lists shared by the lookups of an on-disk index, keyed by the id of the term in the index;
+// a cache belongs to one index, lists are returned unmodifiable since every caller of the term gets the same list
+public interface PostingListCache {
+
+    PostingListCache NONE = new PostingListCache() {
+        @Override
+        public <T> List<T> get(int termId, Kind kind, Supplier<List<T>> loader) {
+            return loader.get();
+        }
+    };
+
+    <T> List<T> get(int termId, Kind kind, Supplier<List<T>> loader);
+
+    // the lists an index decodes for a term, with the heap a posting takes in them
+    enum Kind {
+        // a boxed id, ids out of the Integer cache are shared
+        IDS {
+            @Override
+            protected long postingSize(Object posting) {
+                return boxedIntegerSize((Integer) posting);
+            }
+        },
+        // an entry of an id and a term frequency
+        ENTRIES {
+            @Override
+            protected long postingSize(Object posting) {
+                return objectSize(2 * Integer.BYTES);
+            }
+        };
+
+        // an unmodifiable view of an array list, with a reference and the posting for every element
+        public long bytes(List<?> postingList) {
+            long size = objectSize(2 * REFERENCE_SIZE) + ARRAY_LIST_SIZE + arraySize(postingList.size(), REFERENCE_SIZE);
+            for (Object posting : postingList)
+                size += postingSize(posting);
+            return size;
+        }
+
+        protected abstract long postingSize(Object posting);
+    }
+}
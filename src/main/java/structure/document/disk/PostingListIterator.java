@@ -0,0 +1,88 @@
+package structure.document.disk;
+
+import encoders.ByteBufferInputStream;
+import encoders.EncodedInputStream;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+// advance() seeks past the postings below its target through the skip entries of the list
+public class PostingListIterator {
+
+    private final ByteBufferInputStream postings;
+    private final Function<InputStream, EncodedInputStream> encodedInputStreamFactory;
+    private EncodedInputStream is;
+    private final ByteBuffer postingList;
+    private final int idBase;
+    private final int postingSize;
+    private final int skipsStart;
+    private final int skipsCount;
+    private int nextSkip;
+    private int id;
+    private boolean started;
+    private boolean exhausted;
+
+    // postingSize is the number of ints per posting, the id first
+    public PostingListIterator(ByteBuffer postingList, int frequency, int idBase, int postingSize,
+                               Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
+        this.postingList = postingList;
+        this.idBase = idBase;
+        this.postingSize = postingSize;
+        int size = postingList.limit();
+        skipsCount = SkipListWriter.hasSkips(frequency) ? postingList.getInt(size - Integer.BYTES) : 0;
+        skipsStart = skipsCount == 0 ? size : size - skipsCount * SkipListWriter.ENTRY_BYTES - Integer.BYTES;
+        this.postings = new ByteBufferInputStream(postingList.duplicate().limit(skipsStart));
+        this.encodedInputStreamFactory = encodedInputStreamFactory;
+        this.is = encodedInputStreamFactory.apply(postings);
+        this.id = idBase;
+    }
+
+    public boolean next() {
+        if (exhausted) return false;
+        int gap = is.readInt();
+        for (int i = 1; i < postingSize; i++)
+            is.readInt();
+        if (is.eofReached()) {
+            exhausted = true;
+            return false;
+        }
+        id += gap;
+        started = true;
+        return true;
+    }
+
+    public boolean advance(int target) {
+        if (exhausted) return false;
+        if (started && id >= target) return true;
+        int skip = -1;
+        while (nextSkip < skipsCount && idBase + skipId(nextSkip) < target)
+            skip = nextSkip++;
+        if (skip != -1 && skipOffset(skip) > position()) {
+            // a skip entry starts a block of a block codec, a new decoder drops the values held back
+            postings.seek(skipOffset(skip));
+            is = encodedInputStreamFactory.apply(postings);
+            id = idBase + skipId(skip);
+        }
+        while (next()) {
+            if (id >= target) return true;
+        }
+        return false;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    private int position() {
+        return skipsStart - postings.available();
+    }
+
+    private int skipId(int skip) {
+        return postingList.getInt(skipsStart + skip * SkipListWriter.ENTRY_BYTES);
+    }
+
+    private int skipOffset(int skip) {
+        return postingList.getInt(skipsStart + skip * SkipListWriter.ENTRY_BYTES + Integer.BYTES);
+    }
+}
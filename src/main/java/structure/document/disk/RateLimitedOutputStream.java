@@ -0,0 +1,27 @@
+package structure.document.disk;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class RateLimitedOutputStream extends FilterOutputStream {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitedOutputStream(OutputStream os, RateLimiter rateLimiter) {
+        super(os);
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        rateLimiter.acquire(1);
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        rateLimiter.acquire(len);
+        out.write(b, off, len);
+    }
+}
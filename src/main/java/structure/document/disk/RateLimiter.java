@@ -0,0 +1,27 @@
+package structure.document.disk;
+
+import lombok.SneakyThrows;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiter {
+
+    private final long bytesPerSecond;
+    private long nextFreeTime;
+
+    public RateLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    @SneakyThrows
+    public void acquire(long bytes) {
+        if (bytesPerSecond <= 0) return;
+        long delay;
+        synchronized (this) {
+            long now = System.nanoTime();
+            delay = nextFreeTime - now;
+            nextFreeTime = Math.max(nextFreeTime, now) + bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+        }
+        if (delay > 0) TimeUnit.NANOSECONDS.sleep(delay);
+    }
+}
@@ -6,123 +6,428 @@ import lombok.SneakyThrows;
 import tokenizer.Tokenizer;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
 
+import static java.nio.file.StandardOpenOption.*;
 import static structure.document.disk.Utils.*;
 
 public class SPIMIIndexer implements Indexer {
 
     private static final int MAX_NUMBER_OF_THREADS = 10;
+    private static final int LOADED_DOCUMENTS_PER_THREAD = 4;
+    private static final LoadedDocument END_OF_DOCUMENTS = new LoadedDocument(-1, List.of(), 0);
     private static final String BLOCK_FILE_PREFIX = "block-";
+    private static final String MERGE_POSTINGS_FILE_PREFIX = "merge-postings-";
+    private static final String MERGE_VOCABULARY_FILE_PREFIX = "merge-vocabulary-";
+    private static final int CHECKPOINT_INTERVAL = 4096;
 
     private final Path path;
     private final int zonesCount;
     private final Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory;
     private final Function<InputStream, EncodedInputStream> encodedInputStreamFactory;
+    private final Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory;
+    private final Function<OutputStream, EncodedOutputStream> runOutputStreamFactory;
+    private final Function<InputStream, EncodedInputStream> runInputStreamFactory;
     private final Function<Integer, OutBlock> outBlockFactory;
-    private final Function<EncodedInputStream, InBlock> inBlockFactory;
-
+    private final BiFunction<NumericInputStream, TermDictionary, InBlock> inBlockFactory;
+    private final long memoryBudget;
+    private final long blockMemoryBudget;
+    private final int inverterThreadsCount;
+    private final int mergeThreadsCount;
+    private final int loaderThreadsCount;
+    private final VocabularyInfo vocabularyInfo;
+    private final SegmentMerger segmentMerger;
+    private final IndexingListener listener;
+    private final boolean resumable;
+    private final Map<Integer, BlockIndex> blockIndexes;
+    private final Lock loadedDocumentsLock;
+    private final Condition loadedDocumentsTurn;
+    private final AtomicBoolean building;
+
+    private Path directory;
     private Iterator<DocumentInfo> documentsIterator;
+    private TermDictionary dictionary;
+    private Checkpoint checkpoint;
+    private BitSet flushedDocuments;
+    private BlockingQueue<LoadedDocument> loadedDocuments;
+    private int nextLoadedDocumentId;
+    private volatile Throwable loaderFailure;
+    private volatile Throwable inverterFailure;
     private int blockId;
 
     @SneakyThrows
     private SPIMIIndexer(Path path, int zonesCount,
                         Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory,
                         Function<InputStream, EncodedInputStream> encodedInputStreamFactory,
+                        Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory,
+                        Function<OutputStream, EncodedOutputStream> runOutputStreamFactory,
+                        Function<InputStream, EncodedInputStream> runInputStreamFactory,
                         Function<Integer, OutBlock> outBlockFactory,
-                        Function<EncodedInputStream, InBlock> inBlockFactory)
+                        BiFunction<NumericInputStream, TermDictionary, InBlock> inBlockFactory,
+                        long memoryBudget, long blockMemoryBudget, int inverterThreadsCount, int mergeThreadsCount, int loaderThreadsCount,
+                        VocabularyInfo vocabularyInfo, SegmentMerger segmentMerger, IndexingListener listener, boolean resumable)
     {
         Files.createDirectories(path);
         this.path = path;
         this.zonesCount = zonesCount;
         this.encodedOutputStreamFactory = encodedOutputStreamFactory;
         this.encodedInputStreamFactory = encodedInputStreamFactory;
+        this.postingsOutputStreamFactory = postingsOutputStreamFactory;
+        this.runOutputStreamFactory = runOutputStreamFactory;
+        this.runInputStreamFactory = runInputStreamFactory;
         this.outBlockFactory = outBlockFactory;
         this.inBlockFactory = inBlockFactory;
+        this.memoryBudget = memoryBudget;
+        this.blockMemoryBudget = blockMemoryBudget;
+        this.inverterThreadsCount = inverterThreadsCount;
+        this.mergeThreadsCount = mergeThreadsCount;
+        this.loaderThreadsCount = loaderThreadsCount;
+        this.vocabularyInfo = vocabularyInfo;
+        this.segmentMerger = segmentMerger;
+        this.listener = listener;
+        this.resumable = resumable;
+        this.blockIndexes = new ConcurrentHashMap<>();
+        this.loadedDocumentsLock = new ReentrantLock();
+        this.loadedDocumentsTurn = loadedDocumentsLock.newCondition();
+        this.building = new AtomicBoolean();
     }
 
     @Override
     public void index(Collection<Document> documents, Tokenizer tokenizer) {
         if (documents.isEmpty()) return;
-        buildDocumentsMap(documents);
-        buildBlocks(documents, tokenizer);
-        mergeBlocks();
+        startBuild();
+        Lock lock = Segments.lock(path);
+        lock.lock();
+        try {
+            Segments.clear(path);
+            build(path, documents, tokenizer, resumable);
+        } finally {
+            lock.unlock();
+            building.set(false);
+        }
+    }
+
+    @Override
+    public void append(Collection<Document> documents, Tokenizer tokenizer) {
+        if (documents.isEmpty()) return;
+        startBuild();
+        try {
+            Lock lock = Segments.lock(path);
+            Path segmentDirectory;
+            lock.lock();
+            try {
+                Segments.readOrMigrate(path);
+                segmentDirectory = Segments.create(path);
+            } finally {
+                lock.unlock();
+            }
+            build(segmentDirectory, documents, tokenizer, false);
+            lock.lock();
+            try {
+                Segments.add(path, new Segments.Info(segmentDirectory.getFileName().toString(), documents.size()));
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            building.set(false);
+        }
+        if (segmentMerger != null) segmentMerger.requestMerge();
+    }
+
+    // the state of a build lives in the fields of the indexer, one build at a time
+    private void startBuild() {
+        if (!building.compareAndSet(false, true))
+            throw new IllegalStateException("Indexer of " + path + " is already building, index() and append() calls must not overlap");
+    }
+
+    private void build(Path directory, Collection<Document> documents, Tokenizer tokenizer, boolean resume) {
+        this.directory = directory;
+        dictionary = new TermDictionary();
+        flushedDocuments = new BitSet();
+        phase(IndexingListener.Phase.DOCUMENTS_MAP, () -> buildDocumentsMap(documents, resume));
+        if (checkpoint != null && checkpoint.isMerged())
+            deleteRanges(checkpoint.getBounds().size() + 1);
+        else {
+            phase(IndexingListener.Phase.INVERSION, () -> buildBlocks(documents, tokenizer));
+            phase(IndexingListener.Phase.MERGE, () -> {
+                dictionary.sort();
+                mergeBlocks();
+            });
+        }
         deleteBlocks();
+        if (checkpoint != null) checkpoint.delete();
         reset();
     }
 
+    private void phase(IndexingListener.Phase phase, Runnable action) {
+        listener.phaseStarted(phase);
+        long start = System.nanoTime();
+        action.run();
+        listener.phaseFinished(phase, System.nanoTime() - start);
+    }
+
     @SneakyThrows
-    private void buildDocumentsMap(Collection<Document> documents) {
+    private void buildDocumentsMap(Collection<Document> documents, boolean resume) {
         List<DocumentInfo> list = new ArrayList<>(documents.size());
+        CRC32 names = new CRC32();
         int id = 0;
         try (PrintWriter os = new PrintWriter(new BufferedOutputStream(new FileOutputStream(path(DOCUMENTS_MAP_FILE_NAME), false)), false, StandardCharsets.UTF_8)) {
             for (Document document : documents) {
                 list.add(new DocumentInfo(document, id++));
                 os.println(document.getName());
+                names.update((document.getName() + "\n").getBytes(StandardCharsets.UTF_8));
             }
         }
-        documentsIterator = list.iterator();
+        if (resume) resume("documents " + documents.size() + " " + zonesCount + " " + Long.toHexString(names.getValue()));
+        documentsIterator = list.stream().filter(document -> !flushedDocuments.get(document.id())).iterator();
+        nextLoadedDocumentId = flushedDocuments.nextClearBit(0);
+    }
+
+    // a build of the same documents continues with the blocks it has flushed, anything else starts over
+    private void resume(String header) {
+        checkpoint = Checkpoint.open(directory, header, BLOCK_FILE_PREFIX);
+        dictionary = checkpoint.getDictionary();
+        flushedDocuments = checkpoint.getFlushedDocuments();
+        blockIndexes.putAll(checkpoint.getBlockIndexes());
+        blockId = blockIndexes.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
     }
 
     @SneakyThrows
     private void buildBlocks(Collection<Document> documents, Tokenizer tokenizer) {
-        int numberOfThreads = Math.min(MAX_NUMBER_OF_THREADS, documents.size());
-        long minMemoryThreshold = freeMemory() / (numberOfThreads + 1);
+        int numberOfThreads = Math.min(inverterThreadsCount > 0 ? inverterThreadsCount : MAX_NUMBER_OF_THREADS, documents.size());
+        long blockBudget = blockBudget(numberOfThreads);
+        loadedDocuments = new ArrayBlockingQueue<>(numberOfThreads * LOADED_DOCUMENTS_PER_THREAD);
+        loaderFailure = null;
+        inverterFailure = null;
+        int numberOfLoaders = Math.min(loaderThreadsCount > 0 ? loaderThreadsCount : MAX_NUMBER_OF_THREADS, documents.size());
+        Thread[] loaders = new Thread[numberOfLoaders];
+        for (int i = 0; i < numberOfLoaders; i++)
+            loaders[i] = Thread.ofVirtual().name("document-loader-" + i).start(this::loadDocuments);
         Thread[] threads = new Thread[numberOfThreads];
         for (int i = 0; i < numberOfThreads; i++) {
-            threads[i] = new InverterThread(tokenizer, minMemoryThreshold);
+            threads[i] = new InverterThread(i, tokenizer, blockBudget);
             threads[i].start();
         }
+        for (Thread loader : loaders)
+            loader.join();
+        for (int i = 0; i < numberOfThreads; i++)
+            loadedDocuments.put(END_OF_DOCUMENTS);
         for (Thread thread : threads)
             thread.join();
+        if (inverterFailure != null) throw inverterFailure;
+        if (loaderFailure != null) throw loaderFailure;
+    }
+
+    @SneakyThrows
+    private void loadDocuments() {
+        while (true) {
+            DocumentInfo documentInfo = nextDocument();
+            if (documentInfo == null) break;
+            List<String> zones = List.of();
+            long bytes = 0;
+            try {
+                zones = documentInfo.document().getZones();
+                bytes = documentInfo.document().getSize();
+            } catch (Throwable e) {
+                loaderFailure = e;
+            }
+            putLoadedDocument(new LoadedDocument(documentInfo.id(), zones, bytes));
+        }
+    }
+
+    // out-blocks expect increasing ids, documents are queued in id order
+    private void putLoadedDocument(LoadedDocument document) throws InterruptedException {
+        loadedDocumentsLock.lock();
+        try {
+            while (nextLoadedDocumentId != document.id())
+                loadedDocumentsTurn.await();
+            loadedDocuments.put(document);
+            nextLoadedDocumentId = flushedDocuments.nextClearBit(document.id() + 1);
+            loadedDocumentsTurn.signalAll();
+        } finally {
+            loadedDocumentsLock.unlock();
+        }
+    }
+
+    private long blockBudget(int numberOfThreads) {
+        if (blockMemoryBudget > 0) return blockMemoryBudget;
+        if (memoryBudget > 0) return memoryBudget / numberOfThreads;
+        return freeMemory() / (numberOfThreads + 1);
     }
 
     @SneakyThrows
     private void mergeBlocks() {
-        PriorityQueue<InBlock> queue = initBlockQueue();
-        long position = 0;
-        try (EncodedOutputStream osPostings = os(POSTINGS_FILE_NAME);
-             VocabularyEncoder osVocabulary = new VocabularyFrontEncoder(os(VOCABULARY_STRING_FILE_NAME), os(VOCABULARY_TABLE_FILE_NAME))) {
-            while (!queue.isEmpty()) {
-                InBlock block = queue.poll();
-                InBlock.MergeResult mergeResult = block.toMergeResult();
-                while (!queue.isEmpty() && mergeResult.shouldMerge(queue.peek())) {
-                    InBlock nextBlock = queue.poll();
-                    mergeResult.merge(nextBlock);
-                    if (nextBlock.advance()) queue.add(nextBlock);
-                    else nextBlock.close();
-                }
-                if (block.advance()) queue.add(block);
-                else block.close();
-                position = mergeResult.save(position, osPostings, osVocabulary);
+        List<String> bounds = checkpoint == null ? partitionBounds() : checkpointedBounds();
+        // only range files are checkpointed, a resumable build merges through them even with a single range
+        if (bounds.isEmpty() && checkpoint == null) {
+            try (EncodedOutputStream osPostings = postingsOutputStreamFactory.apply(fileOs(POSTINGS_FILE_NAME));
+                 VocabularyEncoder osVocabulary = vocabularyInfo.encoder(this::fileOs, encodedOutputStreamFactory)) {
+                mergeRange(null, false, null, 0, osPostings, osVocabulary, null);
+            }
+            vocabularyInfo.write(directory);
+            return;
+        }
+        MergerThread[] threads = new MergerThread[bounds.size() + 1];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new MergerThread(i, i == 0 ? null : bounds.get(i - 1), i == bounds.size() ? null : bounds.get(i));
+            threads[i].start();
+        }
+        for (MergerThread thread : threads)
+            thread.join();
+        for (MergerThread thread : threads) {
+            if (thread.failure != null) throw thread.failure;
+        }
+        joinRanges(threads);
+        if (checkpoint != null) checkpoint.mergeFinished();
+        deleteRanges(threads.length);
+    }
+
+    private List<String> checkpointedBounds() {
+        if (checkpoint.getBounds() == null)
+            checkpoint.boundsChosen(partitionBounds());
+        return checkpoint.getBounds();
+    }
+
+    private List<String> partitionBounds() {
+        int numberOfThreads = mergeThreadsCount > 0 ? mergeThreadsCount : Math.min(MAX_NUMBER_OF_THREADS, Runtime.getRuntime().availableProcessors());
+        List<String> samples = blockIndexes.values().stream()
+                .flatMap(index -> index.getTerms().stream())
+                .distinct()
+                .sorted(TermDictionary::compare)
+                .toList();
+        List<String> bounds = new ArrayList<>();
+        if (samples.isEmpty()) return bounds;
+        for (int i = 1; i < numberOfThreads; i++) {
+            String bound = samples.get(i * samples.size() / numberOfThreads);
+            if (TermDictionary.compare(bound, samples.getFirst()) > 0 && (bounds.isEmpty() || TermDictionary.compare(bound, bounds.getLast()) > 0))
+                bounds.add(bound);
+        }
+        return bounds;
+    }
+
+    private long mergeRange(String from, boolean fromExcluded, String to, long position,
+                            EncodedOutputStream osPostings, VocabularyEncoder osVocabulary, IntConsumer onCheckpoint) {
+        PriorityQueue<InBlock> queue = initBlockQueue(from, fromExcluded, to);
+        List<InBlock> mergedBlocks = new ArrayList<>();
+        for (int terms = 1; !queue.isEmpty(); terms++) {
+            InBlock block = queue.poll();
+            int termId = block.getTermId();
+            InBlock.MergeResult mergeResult = block.toMergeResult();
+            mergedBlocks.add(block);
+            while (!queue.isEmpty() && mergeResult.shouldMerge(queue.peek())) {
+                InBlock nextBlock = queue.poll();
+                mergeResult.merge(nextBlock);
+                mergedBlocks.add(nextBlock);
             }
+            // save() streams the postings from the blocks, they advance only after it
+            long termPosition = position;
+            position = mergeResult.save(position, osPostings, osVocabulary);
+            listener.termMerged(position - termPosition);
+            for (InBlock mergedBlock : mergedBlocks)
+                advance(mergedBlock, to, queue);
+            mergedBlocks.clear();
+            if (onCheckpoint != null && terms % CHECKPOINT_INTERVAL == 0)
+                onCheckpoint.accept(termId);
         }
+        return position;
     }
 
     @SneakyThrows
-    private PriorityQueue<InBlock> initBlockQueue() {
+    private PriorityQueue<InBlock> initBlockQueue(String from, boolean fromExcluded, String to) {
         PriorityQueue<InBlock> queue = new PriorityQueue<>();
-        for (int i = 0; i < blockId; i++) {
-            InBlock block = inBlockFactory.apply(is(BLOCK_FILE_PREFIX + i));
-            if (block.advance()) queue.add(block);
+        int fromRank = from == null ? 0 : dictionary.rank(from) + (fromExcluded ? 1 : 0);
+        for (int i : blockIndexes.keySet()) {
+            long offset = from == null ? 0 : blockIndexes.get(i).floorOffset(from);
+            InBlock block = inBlockFactory.apply(runIs(BLOCK_FILE_PREFIX + i, offset), dictionary);
+            boolean hasTerm = block.advance();
+            while (hasTerm && dictionary.rank(block.getTermId()) < fromRank)
+                hasTerm = block.advance();
+            if (hasTerm && inRange(block, to)) queue.add(block);
             else block.close();
         }
         return queue;
     }
 
+    @SneakyThrows
+    private void advance(InBlock block, String to, PriorityQueue<InBlock> queue) {
+        if (block.advance() && inRange(block, to)) queue.add(block);
+        else block.close();
+    }
+
+    private boolean inRange(InBlock block, String to) {
+        return to == null || dictionary.rank(block.getTermId()) < dictionary.rank(to);
+    }
+
+    @SneakyThrows
+    private void joinRanges(MergerThread[] threads) {
+        try (FileChannel osPostings = FileChannel.open(directory.resolve(POSTINGS_FILE_NAME), CREATE, WRITE, TRUNCATE_EXISTING)) {
+            for (MergerThread thread : threads) {
+                try (FileChannel isPostings = FileChannel.open(directory.resolve(MERGE_POSTINGS_FILE_PREFIX + thread.rangeId))) {
+                    long size = isPostings.size();
+                    for (long transferred = 0; transferred < size; )
+                        transferred += isPostings.transferTo(transferred, size - transferred, osPostings);
+                }
+            }
+        }
+        try (VocabularyEncoder osVocabulary = vocabularyInfo.encoder(this::fileOs, encodedOutputStreamFactory)) {
+            long base = 0;
+            for (MergerThread thread : threads) {
+                try (EncodedInputStream is = runIs(MERGE_VOCABULARY_FILE_PREFIX + thread.rangeId, 0)) {
+                    while (true) {
+                        String term = is.readString();
+                        int frequency = is.readInt();
+                        long position = is.readLong();
+                        if (is.eofReached()) break;
+                        osVocabulary.write(term, frequency, base + position);
+                    }
+                }
+                base += thread.postingsSize;
+            }
+        }
+        vocabularyInfo.write(directory);
+    }
+
+    @SneakyThrows
+    private void deleteRanges(int rangesCount) {
+        for (int i = 0; i < rangesCount; i++) {
+            Files.deleteIfExists(directory.resolve(MERGE_POSTINGS_FILE_PREFIX + i));
+            Files.deleteIfExists(directory.resolve(MERGE_VOCABULARY_FILE_PREFIX + i));
+        }
+    }
+
     @SneakyThrows
     private void deleteBlocks() {
-        for (int i = 0; i < blockId; i++)
-            Files.delete(Path.of(path(BLOCK_FILE_PREFIX + i)));
+        for (int i : blockIndexes.keySet())
+            Files.deleteIfExists(Path.of(path(BLOCK_FILE_PREFIX + i)));
     }
 
     private void reset() {
+        directory = null;
         documentsIterator = null;
+        dictionary = null;
+        checkpoint = null;
+        flushedDocuments = null;
+        loadedDocuments = null;
+        nextLoadedDocumentId = 0;
+        loaderFailure = null;
+        inverterFailure = null;
         blockId = 0;
+        blockIndexes.clear();
     }
 
     private synchronized int nextBlockId() {
@@ -130,65 +435,202 @@ public class SPIMIIndexer implements Indexer {
     }
 
     private synchronized DocumentInfo nextDocument() {
-        if (documentsIterator.hasNext())
+        if (inverterFailure == null && documentsIterator.hasNext())
             return documentsIterator.next();
         return null;
     }
 
     private String path(String fileName) {
-        return path.resolve(fileName).toString();
+        return directory.resolve(fileName).toString();
     }
 
     @SneakyThrows
-    private EncodedOutputStream os(String fileName) {
-        return encodedOutputStreamFactory.apply(new BufferedOutputStream(new FileOutputStream(path(fileName), false)));
+    private OutputStream fileOs(String fileName) {
+        return new BufferedOutputStream(new FileOutputStream(path(fileName), false));
     }
 
     @SneakyThrows
-    private EncodedInputStream is(String fileName) {
-        return encodedInputStreamFactory.apply(new BufferedInputStream(new FileInputStream(path(fileName))));
+    private EncodedInputStream runIs(String fileName, long offset) {
+        FileInputStream is = new FileInputStream(path(fileName));
+        is.getChannel().position(offset);
+        return runInputStreamFactory.apply(new BufferedInputStream(is));
     }
 
     private record DocumentInfo(Document document, int id) {}
 
+    private record LoadedDocument(int id, List<String> zones, long bytes) {}
+
     private class InverterThread extends Thread {
 
-        private static final int MIN_BLOCK_SIZE = 10_000_000;
+        private final int threadId;
         private final Tokenizer tokenizer;
-        private final long minMemoryThreshold;
+        private final long blockBudget;
+        private boolean ended;
 
-        public InverterThread(Tokenizer tokenizer, long minMemoryThreshold) {
+        public InverterThread(int threadId, Tokenizer tokenizer, long blockBudget) {
+            this.threadId = threadId;
             this.tokenizer = tokenizer;
-            this.minMemoryThreshold = minMemoryThreshold - MIN_BLOCK_SIZE;
+            this.blockBudget = blockBudget;
         }
 
+        // a failed thread keeps draining the queue, loaders may be blocked on it
         @Override
+        @SneakyThrows
         public void run() {
+            try {
+                invert();
+            } catch (Throwable e) {
+                inverterFailure = e;
+                while (!ended)
+                    ended = loadedDocuments.take() == END_OF_DOCUMENTS;
+            }
+        }
+
+        private void invert() throws InterruptedException {
             OutBlock block = outBlockFactory.apply(zonesCount);
+            BitSet blockDocuments = new BitSet();
             while (true) {
-                DocumentInfo documentInfo = nextDocument();
-                if (documentInfo == null) break;
-                if (block.size() >= MIN_BLOCK_SIZE && freeMemory() - documentInfo.document().getSize() < minMemoryThreshold) {
-                    flushBlock(block);
-                    block = outBlockFactory.apply(zonesCount);
+                LoadedDocument document = loadedDocuments.take();
+                if (document == END_OF_DOCUMENTS) {
+                    ended = true;
+                    break;
                 }
-                int documentId = documentInfo.id() * zonesCount;
+                if (inverterFailure != null) continue;
+                blockDocuments.set(document.id());
+                int documentId = document.id() * zonesCount;
                 int zoneId = 0;
-                for (String zone : documentInfo.document().getZones()) {
-                    final OutBlock b = block;
-                    final int id = documentId + zoneId;
-                    tokenizer.tokenizeAsStream(zone).forEach(t -> b.add(t, id));
+                int tokens = 0;
+                for (String zone : document.zones()) {
+                    List<String> terms = tokenizer.tokenize(zone);
+                    for (int position = 0; position < terms.size(); position++)
+                        block.add(dictionary.id(terms.get(position)), documentId + zoneId, position);
+                    tokens += terms.size();
                     if (++zoneId >= zonesCount) break;
                 }
+                listener.documentInverted(threadId, document.bytes(), tokens);
+                // zones of one document stay in one block
+                if (block.size() >= blockBudget) {
+                    flushBlock(block, blockDocuments);
+                    block = outBlockFactory.apply(zonesCount);
+                    blockDocuments = new BitSet();
+                }
+            }
+            if (!block.isEmpty() && inverterFailure == null) flushBlock(block, blockDocuments);
+        }
+
+        @SneakyThrows
+        private void flushBlock(OutBlock block, BitSet documents) {
+            int id = nextBlockId();
+            long start = System.nanoTime();
+            long memorySize = block.size();
+            SyncedOutputStream file = new SyncedOutputStream(path(BLOCK_FILE_PREFIX + id), 0);
+            try (EncodedOutputStream os = runOutputStreamFactory.apply(file)) {
+                BlockIndex index = block.flush(os, dictionary);
+                blockIndexes.put(id, index);
+                // a document that failed to load is in the block without zones, the block is inverted again on resume
+                if (checkpoint != null && loaderFailure == null) {
+                    file.sync();
+                    checkpoint.blockFlushed(id, documents, index);
+                }
+            }
+            listener.blockFlushed(id, memorySize, Files.size(directory.resolve(BLOCK_FILE_PREFIX + id)), System.nanoTime() - start);
+        }
+    }
+
+    private class MergerThread extends Thread {
+
+        private final int rangeId;
+        private final String from;
+        private final String to;
+        private long postingsSize;
+        private Throwable failure;
+
+        public MergerThread(int rangeId, String from, String to) {
+            this.rangeId = rangeId;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Checkpoint.RangeState state = checkpoint == null ? null : checkpoint.getRange(rangeId);
+                if (state == null) merge(from, false, 0, 0);
+                else if (!state.finished())
+                    merge(dictionary.term(state.lastTermId()), true, state.postingsSize(), state.vocabularySize());
+                else
+                    postingsSize = state.postingsSize();
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+
+        private void merge(String from, boolean fromExcluded, long position, long vocabularySize) throws IOException {
+            SyncedOutputStream postings = new SyncedOutputStream(path(MERGE_POSTINGS_FILE_PREFIX + rangeId), position);
+            SyncedOutputStream vocabulary = new SyncedOutputStream(path(MERGE_VOCABULARY_FILE_PREFIX + rangeId), vocabularySize);
+            try (EncodedOutputStream osPostings = postingsOutputStreamFactory.apply(postings);
+                 VocabularyEncoder osVocabulary = new VocabularyRunEncoder(runOutputStreamFactory.apply(vocabulary))) {
+                postingsSize = mergeRange(from, fromExcluded, to, position, osPostings, osVocabulary,
+                        checkpoint == null ? null : termId -> checkpoint(termId, postings, vocabulary, false));
+                if (checkpoint != null) checkpoint(-1, postings, vocabulary, true);
             }
-            if (!block.isEmpty()) flushBlock(block);
         }
 
         @SneakyThrows
-        private void flushBlock(OutBlock block) {
-            try (EncodedOutputStream os = os(BLOCK_FILE_PREFIX + nextBlockId())) {
-                block.flush(os);
+        private void checkpoint(int lastTermId, SyncedOutputStream postings, SyncedOutputStream vocabulary, boolean finished) {
+            checkpoint.rangeMerged(rangeId, new Checkpoint.RangeState(lastTermId, postings.sync(), vocabulary.sync(), finished));
+        }
+    }
+
+    // a file output stream that can be forced to disk while it is written; a stream opened at a size greater than
+    // zero continues a file of at least that size, dropping everything written after it
+    private static class SyncedOutputStream extends BufferedOutputStream {
+
+        private final FileOutputStream os;
+
+        public SyncedOutputStream(String fileName, long size) {
+            this(open(fileName, size));
+        }
+
+        private SyncedOutputStream(FileOutputStream os) {
+            super(os);
+            this.os = os;
+        }
+
+        @SneakyThrows
+        private static FileOutputStream open(String fileName, long size) {
+            if (size == 0) return new FileOutputStream(fileName, false);
+            try (FileChannel channel = FileChannel.open(Path.of(fileName), WRITE)) {
+                channel.truncate(size);
             }
+            return new FileOutputStream(fileName, true);
+        }
+
+        public long sync() throws IOException {
+            flush();
+            os.getFD().sync();
+            return os.getChannel().size();
+        }
+    }
+
+    private static class VocabularyRunEncoder implements VocabularyEncoder {
+
+        private final EncodedOutputStream os;
+
+        public VocabularyRunEncoder(EncodedOutputStream os) {
+            this.os = os;
+        }
+
+        @Override
+        public void write(String term, int frequency, long position) {
+            os.write(term);
+            os.write(frequency);
+            os.write(position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            os.close();
         }
     }
 
@@ -205,8 +647,21 @@ public class SPIMIIndexer implements Indexer {
         private int zonesCount = 1;
         private Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory = NotEncodedOutputStream::new;
         private Function<InputStream, EncodedInputStream> encodedInputStreamFactory = NotEncodedInputStream::new;
+        private Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory;
+        private Function<OutputStream, EncodedOutputStream> runOutputStreamFactory = VBEncodedOutputStream::new;
+        private Function<InputStream, EncodedInputStream> runInputStreamFactory = VBEncodedInputStream::new;
         private Function<Integer, OutBlock> outBlockFactory = DefaultOutBlock::new;
-        private Function<EncodedInputStream, InBlock> inBlockFactory = DefaultInBlock::new;
+        private BiFunction<NumericInputStream, TermDictionary, InBlock> inBlockFactory = DefaultInBlock::new;
+        private long memoryBudget;
+        private long blockMemoryBudget;
+        private int inverterThreadsCount;
+        private int mergeThreadsCount;
+        private int loaderThreadsCount;
+        private int termsPerBlock = VocabularyFrontEncoder.DEFAULT_TERMS_PER_BLOCK;
+        private VocabularyFormat vocabularyFormat = VocabularyFormat.FRONT_CODED;
+        private SegmentMerger segmentMerger;
+        private IndexingListener listener = IndexingListener.NONE;
+        private boolean resumable;
 
         private Builder(Path path) {
             this.path = path;
@@ -231,18 +686,92 @@ public class SPIMIIndexer implements Indexer {
             return this;
         }
 
+        public Builder postingsOutputStreamFactory(Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory) {
+            this.postingsOutputStreamFactory = postingsOutputStreamFactory;
+            return this;
+        }
+
+        public Builder runOutputStreamFactory(Function<OutputStream, EncodedOutputStream> runOutputStreamFactory) {
+            this.runOutputStreamFactory = runOutputStreamFactory;
+            return this;
+        }
+
+        public Builder runInputStreamFactory(Function<InputStream, EncodedInputStream> runInputStreamFactory) {
+            this.runInputStreamFactory = runInputStreamFactory;
+            return this;
+        }
+
         public Builder outBlockFactory(Function<Integer, OutBlock> outBlockFactory) {
             this.outBlockFactory = outBlockFactory;
             return this;
         }
 
-        public Builder inBlockFactory(Function<EncodedInputStream, InBlock> inBlockFactory) {
+        public Builder inBlockFactory(BiFunction<NumericInputStream, TermDictionary, InBlock> inBlockFactory) {
             this.inBlockFactory = inBlockFactory;
             return this;
         }
 
+        public Builder memoryBudget(long memoryBudget) {
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        public Builder blockMemoryBudget(long blockMemoryBudget) {
+            this.blockMemoryBudget = blockMemoryBudget;
+            return this;
+        }
+
+        public Builder inverterThreadsCount(int inverterThreadsCount) {
+            this.inverterThreadsCount = inverterThreadsCount;
+            return this;
+        }
+
+        public Builder mergeThreadsCount(int mergeThreadsCount) {
+            this.mergeThreadsCount = mergeThreadsCount;
+            return this;
+        }
+
+        public Builder loaderThreadsCount(int loaderThreadsCount) {
+            this.loaderThreadsCount = loaderThreadsCount;
+            return this;
+        }
+
+        public Builder termsPerBlock(int termsPerBlock) {
+            this.termsPerBlock = termsPerBlock;
+            return this;
+        }
+
+        public Builder vocabularyFormat(VocabularyFormat vocabularyFormat) {
+            this.vocabularyFormat = vocabularyFormat;
+            return this;
+        }
+
+        public Builder segmentMerger(SegmentMerger segmentMerger) {
+            this.segmentMerger = segmentMerger;
+            return this;
+        }
+
+        public Builder listener(IndexingListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        // index() keeps a checkpoint next to its run files to continue a build interrupted by a crash
+        public Builder resumable(boolean resumable) {
+            this.resumable = resumable;
+            return this;
+        }
+
+        // segments are merged as fixed-size postings, positional postings carry positions of any length
         public SPIMIIndexer build() {
-            return new SPIMIIndexer(path, zonesCount, encodedOutputStreamFactory, encodedInputStreamFactory, outBlockFactory, inBlockFactory);
+            if (!runOutputStreamFactory.apply(OutputStream.nullOutputStream()).seekable())
+                throw new IllegalStateException("Run files of " + path + " are read from sampled offsets, bit codecs cannot be run codecs");
+            if (segmentMerger != null && outBlockFactory.apply(zonesCount) instanceof PositionalOutBlock)
+                throw new IllegalStateException("Positional and biword segments of " + path + " cannot be merged by a segment merger");
+            return new SPIMIIndexer(path, zonesCount, encodedOutputStreamFactory, encodedInputStreamFactory,
+                    postingsOutputStreamFactory != null ? postingsOutputStreamFactory : encodedOutputStreamFactory, runOutputStreamFactory, runInputStreamFactory, outBlockFactory, inBlockFactory,
+                    memoryBudget, blockMemoryBudget, inverterThreadsCount, mergeThreadsCount, loaderThreadsCount,
+                    new VocabularyInfo(termsPerBlock, vocabularyFormat), segmentMerger, listener, resumable);
         }
     }
 }
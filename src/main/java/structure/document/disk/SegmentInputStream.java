@@ -0,0 +1,215 @@
+package structure.document.disk;
+
+import encoders.EncodedInputStream;
+import encoders.NumericInputStream;
+import encoders.VocabularyDecoder;
+import encoders.VocabularyFrontDecoder;
+import encoders.VocabularyFstDecoder;
+import lombok.SneakyThrows;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Function;
+
+// presents a segment in the layout of a block file, so that segments can be merged by in-blocks, which only read numbers;
+// postings of deleted documents are dropped and the remaining documents are renumbered without gaps,
+// terms are registered in the dictionary of the merge when the stream is opened
+public class SegmentInputStream implements NumericInputStream {
+
+    private final int idBase;
+    private final int zonesCount;
+    private final int postingSize;
+    private final BitSet deleted;
+    private final int[] liveIds;
+    private final int deletedCount;
+    private final Function<InputStream, EncodedInputStream> encodedInputStreamFactory;
+    private final Function<InputStream, EncodedInputStream> postingsInputStreamFactory;
+    private final FileChannel postings;
+    private final VocabularyInfo vocabularyInfo;
+    private final int termsPerBlock;
+    private int[] termIds;
+    private int[] frequencies;
+    private long[] positions;
+    private int termsCount;
+    private int termIndex;
+    private int[] values;
+    private int valuesLength;
+    private int valueIndex;
+    private boolean eofReached;
+
+    @SneakyThrows
+    public SegmentInputStream(Path segmentDirectory, BitSet deleted, int idBase, int zonesCount, int postingSize,
+                              TermDictionary dictionary, Function<InputStream, EncodedInputStream> encodedInputStreamFactory,
+                              Function<InputStream, EncodedInputStream> postingsInputStreamFactory) {
+        this.idBase = idBase;
+        this.zonesCount = zonesCount;
+        this.postingSize = postingSize;
+        this.deleted = deleted;
+        this.liveIds = Segments.liveIds(deleted);
+        this.deletedCount = deleted.cardinality();
+        this.encodedInputStreamFactory = encodedInputStreamFactory;
+        this.postingsInputStreamFactory = postingsInputStreamFactory;
+        this.vocabularyInfo = VocabularyInfo.read(segmentDirectory);
+        this.termsPerBlock = vocabularyInfo.termsPerBlock();
+        int[] blockPositions = new int[16];
+        frequencies = new int[16];
+        positions = new long[16];
+        blockPositions = loadVocabularyTable(segmentDirectory, blockPositions);
+        loadTermIds(segmentDirectory, blockPositions, dictionary);
+        postings = FileChannel.open(segmentDirectory.resolve(Indexer.POSTINGS_FILE_NAME));
+        termIndex = -1;
+        values = new int[16];
+    }
+
+    private int liveId(int documentId) {
+        return documentId < liveIds.length ? liveIds[documentId] : documentId - deletedCount;
+    }
+
+    @SneakyThrows
+    private int[] loadVocabularyTable(Path segmentDirectory, int[] blockPositions) {
+        try (EncodedInputStream is = encodedInputStreamFactory.apply(new BufferedInputStream(Files.newInputStream(segmentDirectory.resolve(Indexer.VOCABULARY_TABLE_FILE_NAME))))) {
+            for (int block = 0; ; block++) {
+                int position = is.readInt();
+                if (is.eofReached()) break;
+                if (block == blockPositions.length)
+                    blockPositions = Arrays.copyOf(blockPositions, block * 2);
+                blockPositions[block] = position;
+                for (int i = 0; i < termsPerBlock; i++) {
+                    int frequency = is.readInt();
+                    long postingsPosition = is.readLong();
+                    if (is.eofReached()) break;
+                    if (termsCount == frequencies.length) {
+                        frequencies = Arrays.copyOf(frequencies, termsCount * 2);
+                        positions = Arrays.copyOf(positions, termsCount * 2);
+                    }
+                    frequencies[termsCount] = frequency;
+                    positions[termsCount++] = postingsPosition;
+                }
+            }
+        }
+        return blockPositions;
+    }
+
+    @SneakyThrows
+    private void loadTermIds(Path segmentDirectory, int[] blockPositions, TermDictionary dictionary) {
+        termIds = new int[termsCount];
+        if (vocabularyInfo.format() == VocabularyFormat.FST) {
+            byte[] fst = Files.readAllBytes(segmentDirectory.resolve(Indexer.VOCABULARY_FST_FILE_NAME));
+            VocabularyFstDecoder.Terms terms = new VocabularyFstDecoder(ByteBuffer.wrap(fst)).terms(new byte[0]);
+            for (int i = 0; i < termsCount && terms.next(); i++)
+                termIds[i] = dictionary.id(terms.term());
+            return;
+        }
+        VocabularyDecoder vocabularyDecoder = new VocabularyFrontDecoder(Files.readAllBytes(segmentDirectory.resolve(Indexer.VOCABULARY_STRING_FILE_NAME)), encodedInputStreamFactory);
+        byte[] prefix = null;
+        for (int i = 0; i < termsCount; i++) {
+            if (i % termsPerBlock == 0) {
+                vocabularyDecoder.seek(blockPositions[i / termsPerBlock]);
+                prefix = vocabularyDecoder.readPrefix();
+            }
+            termIds[i] = dictionary.id(vocabularyDecoder.readTerm(prefix));
+        }
+    }
+
+    @Override
+    public boolean eofReached() {
+        return eofReached;
+    }
+
+    @Override
+    public int readInt() {
+        if (valueIndex == valuesLength && !nextTerm()) {
+            eofReached = true;
+            return 0;
+        }
+        return values[valueIndex++];
+    }
+
+    private boolean nextTerm() {
+        while (++termIndex < termsCount) {
+            loadPostingList();
+            // terms that occur only in deleted documents are dropped
+            if (valuesLength > 3) return true;
+        }
+        valuesLength = valueIndex = 0;
+        termIndex = termsCount;
+        return false;
+    }
+
+    @Override
+    public long readLong() {
+        return readInt();
+    }
+
+    // block entries hold the term id, the document frequency, the number of postings and the postings with gap encoded ids
+    @SneakyThrows
+    private void loadPostingList() {
+        valuesLength = 0;
+        valueIndex = 0;
+        add(termIds[termIndex]);
+        add(frequencies[termIndex]);
+        add(0);
+        int frequency = 0;
+        int previousId = 0;
+        int previousDocumentId = -1;
+        int previousLiveId = 0;
+        boolean skip = false;
+        byte[] postingList = readPostingList();
+        try (EncodedInputStream is = postingsInputStreamFactory.apply(new ByteArrayInputStream(postingList, 0, postingsLength(postingList)))) {
+            for (int i = 0; ; i++) {
+                int value = is.readInt();
+                if (is.eofReached()) break;
+                if (i % postingSize == 0) {
+                    previousId += value;
+                    int documentId = previousId / zonesCount;
+                    skip = deleted.get(documentId);
+                    if (skip) continue;
+                    if (documentId != previousDocumentId) ++frequency;
+                    previousDocumentId = documentId;
+                    int liveId = idBase + liveId(documentId) * zonesCount + previousId % zonesCount;
+                    value = liveId - previousLiveId;
+                    previousLiveId = liveId;
+                }
+                if (!skip) add(value);
+            }
+        }
+        if (!deleted.isEmpty()) values[1] = frequency;
+        values[2] = (valuesLength - 3) / postingSize;
+    }
+
+    private void add(int value) {
+        if (valuesLength == values.length)
+            values = Arrays.copyOf(values, values.length * 2);
+        values[valuesLength++] = value;
+    }
+
+    // the skip entries at the end of the list are rebuilt by the merge
+    private int postingsLength(byte[] postingList) {
+        if (!SkipListWriter.hasSkips(frequencies[termIndex])) return postingList.length;
+        int skipsCount = ByteBuffer.wrap(postingList).getInt(postingList.length - Integer.BYTES);
+        return postingList.length - skipsCount * SkipListWriter.ENTRY_BYTES - Integer.BYTES;
+    }
+
+    @SneakyThrows
+    private byte[] readPostingList() {
+        long end = termIndex == termsCount - 1 ? postings.size() : positions[termIndex + 1];
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - positions[termIndex]));
+        while (buffer.hasRemaining()) {
+            if (postings.read(buffer, positions[termIndex] + buffer.position()) == -1) break;
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public void close() throws IOException {
+        postings.close();
+    }
+}
@@ -0,0 +1,349 @@
+package structure.document.disk;
+
+import encoders.*;
+import lombok.SneakyThrows;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static structure.document.disk.Indexer.*;
+
+public class SegmentMerger implements Closeable {
+
+    private static final long IDLE_TIMEOUT = 1000;
+
+    private final Path path;
+    private final int zonesCount;
+    private final Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory;
+    private final Function<InputStream, EncodedInputStream> encodedInputStreamFactory;
+    private final Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory;
+    private final Function<InputStream, EncodedInputStream> postingsInputStreamFactory;
+    private final BiFunction<NumericInputStream, TermDictionary, InBlock> inBlockFactory;
+    private final int postingSize;
+    private final int mergeFactor;
+    private final VocabularyInfo vocabularyInfo;
+    private final RateLimiter rateLimiter;
+    private final Object mergeLock;
+
+    private MergeThread thread;
+    private boolean mergeRequested;
+    private volatile boolean closed;
+
+    private SegmentMerger(Path path, int zonesCount,
+                          Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory,
+                          Function<InputStream, EncodedInputStream> encodedInputStreamFactory,
+                          Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory,
+                          Function<InputStream, EncodedInputStream> postingsInputStreamFactory,
+                          BiFunction<NumericInputStream, TermDictionary, InBlock> inBlockFactory,
+                          int postingSize, int mergeFactor, VocabularyInfo vocabularyInfo, long maxBytesPerSecond)
+    {
+        this.path = path;
+        this.zonesCount = zonesCount;
+        this.encodedOutputStreamFactory = encodedOutputStreamFactory;
+        this.encodedInputStreamFactory = encodedInputStreamFactory;
+        this.postingsOutputStreamFactory = postingsOutputStreamFactory;
+        this.postingsInputStreamFactory = postingsInputStreamFactory;
+        this.inBlockFactory = inBlockFactory;
+        this.postingSize = postingSize;
+        this.mergeFactor = mergeFactor;
+        this.vocabularyInfo = vocabularyInfo;
+        this.rateLimiter = new RateLimiter(maxBytesPerSecond);
+        this.mergeLock = new Object();
+    }
+
+    public synchronized void start() {
+        if (thread != null || closed) return;
+        thread = new MergeThread();
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void requestMerge() {
+        mergeRequested = true;
+        notifyAll();
+    }
+
+    private synchronized boolean awaitMergeRequest() throws InterruptedException {
+        if (!mergeRequested && !closed)
+            wait(IDLE_TIMEOUT);
+        mergeRequested = false;
+        return !closed;
+    }
+
+    public void maybeMerge() {
+        synchronized (mergeLock) {
+            boolean merged = true;
+            while (merged && !closed)
+                merged = mergeOnce();
+        }
+    }
+
+    private boolean mergeOnce() {
+        Lock lock = Segments.lock(path);
+        List<Segments.Info> segments;
+        Path segmentDirectory;
+        lock.lock();
+        try {
+            segments = select(Segments.read(path));
+            if (segments.isEmpty()) return false;
+            segmentDirectory = Segments.create(path);
+        } finally {
+            lock.unlock();
+        }
+        List<BitSet> deleted = segments.stream().map(segment -> Segments.readDeleted(path.resolve(segment.name()))).toList();
+        int documentsCount = merge(segments.stream().map(segment -> path.resolve(segment.name())).toList(), deleted, segmentDirectory);
+        Segments.Info merged = new Segments.Info(segmentDirectory.getFileName().toString(), documentsCount);
+        lock.lock();
+        try {
+            List<Segments.Info> current = Segments.read(path);
+            int from = current.indexOf(segments.getFirst());
+            // the index has been rebuilt while merging
+            if (from == -1 || !current.subList(from, Math.min(from + segments.size(), current.size())).equals(segments)) {
+                Segments.delete(segmentDirectory);
+                return false;
+            }
+            carryOverDeletions(segments, deleted, segmentDirectory);
+            current.subList(from, from + segments.size()).clear();
+            current.add(from, merged);
+            Segments.write(path, current);
+        } finally {
+            lock.unlock();
+        }
+        // readers that are already open keep their files, so the segments are released as soon as they are closed
+        for (Segments.Info segment : segments)
+            Segments.delete(path.resolve(segment.name()));
+        return true;
+    }
+
+    // merges the first run of adjacent segments of the same size tier, so that document ids keep their order
+    private List<Segments.Info> select(List<Segments.Info> segments) {
+        int runStart = 0;
+        for (int i = 1; i <= segments.size(); i++) {
+            if (i < segments.size() && tier(segments.get(i)) == tier(segments.get(runStart))) continue;
+            if (i - runStart >= mergeFactor)
+                return segments.subList(runStart, runStart + mergeFactor);
+            runStart = i;
+        }
+        return List.of();
+    }
+
+    private int tier(Segments.Info segment) {
+        int tier = 0;
+        for (long size = mergeFactor; size <= segment.documentsCount(); size *= mergeFactor)
+            ++tier;
+        return tier;
+    }
+
+    // documents deleted while the segments were merged are marked deleted in the merged segment
+    private void carryOverDeletions(List<Segments.Info> segments, List<BitSet> deleted, Path segmentDirectory) {
+        BitSet carried = new BitSet();
+        int documentBase = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            BitSet merged = deleted.get(i);
+            BitSet current = Segments.readDeleted(path.resolve(segments.get(i).name()));
+            current.andNot(merged);
+            int[] liveIds = Segments.liveIds(merged);
+            for (int id = current.nextSetBit(0); id >= 0; id = current.nextSetBit(id + 1))
+                carried.set(documentBase + (id < liveIds.length ? liveIds[id] : id - merged.cardinality()));
+            documentBase += segments.get(i).documentsCount() - merged.cardinality();
+        }
+        if (!carried.isEmpty())
+            Segments.writeDeleted(segmentDirectory, carried);
+    }
+
+    // indexes built separately, e.g. by shard processes, become the index in the merger directory; document ids
+    // are rebased in the order of the shards
+    public void mergeShards(List<Path> shardDirectories) {
+        merge(shardDirectories, shardDirectories.stream().map(Segments::readDeleted).toList(), path);
+    }
+
+    @SneakyThrows
+    private int merge(List<Path> directories, List<BitSet> deleted, Path segmentDirectory) {
+        int documentsCount = 0;
+        int[] documentBases = new int[directories.size()];
+        try (PrintWriter os = new PrintWriter(os(segmentDirectory, DOCUMENTS_MAP_FILE_NAME), false, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < directories.size(); i++) {
+                documentBases[i] = documentsCount;
+                List<String> documentsMap = Files.readAllLines(directories.get(i).resolve(DOCUMENTS_MAP_FILE_NAME), StandardCharsets.UTF_8);
+                for (int id = 0; id < documentsMap.size(); id++) {
+                    if (deleted.get(i).get(id)) continue;
+                    os.println(documentsMap.get(id));
+                    ++documentsCount;
+                }
+            }
+        }
+        // all segment terms are registered before the blocks are compared by term rank
+        TermDictionary dictionary = new TermDictionary();
+        List<SegmentInputStream> streams = new ArrayList<>();
+        for (int i = 0; i < directories.size(); i++) {
+            streams.add(new SegmentInputStream(directories.get(i), deleted.get(i), documentBases[i] * zonesCount,
+                    zonesCount, postingSize, dictionary, encodedInputStreamFactory, postingsInputStreamFactory));
+        }
+        dictionary.sort();
+        PriorityQueue<InBlock> queue = new PriorityQueue<>();
+        for (SegmentInputStream stream : streams) {
+            InBlock block = inBlockFactory.apply(stream, dictionary);
+            if (block.advance()) queue.add(block);
+            else block.close();
+        }
+        try (EncodedOutputStream osPostings = postingsOutputStreamFactory.apply(os(segmentDirectory, POSTINGS_FILE_NAME));
+             VocabularyEncoder osVocabulary = vocabularyInfo.encoder(fileName -> os(segmentDirectory, fileName), encodedOutputStreamFactory)) {
+            long position = 0;
+            List<InBlock> mergedBlocks = new ArrayList<>();
+            while (!queue.isEmpty()) {
+                InBlock block = queue.poll();
+                InBlock.MergeResult mergeResult = block.toMergeResult();
+                mergedBlocks.add(block);
+                while (!queue.isEmpty() && mergeResult.shouldMerge(queue.peek())) {
+                    InBlock nextBlock = queue.poll();
+                    mergeResult.merge(nextBlock);
+                    mergedBlocks.add(nextBlock);
+                }
+                position = mergeResult.save(position, osPostings, osVocabulary);
+                for (InBlock mergedBlock : mergedBlocks)
+                    advance(mergedBlock, queue);
+                mergedBlocks.clear();
+            }
+        }
+        vocabularyInfo.write(segmentDirectory);
+        return documentsCount;
+    }
+
+    @SneakyThrows
+    private void advance(InBlock block, PriorityQueue<InBlock> queue) {
+        if (block.advance()) queue.add(block);
+        else block.close();
+    }
+
+    @SneakyThrows
+    private OutputStream os(Path segmentDirectory, String fileName) {
+        return new BufferedOutputStream(new RateLimitedOutputStream(new FileOutputStream(segmentDirectory.resolve(fileName).toString(), false), rateLimiter));
+    }
+
+    @Override
+    @SneakyThrows
+    public void close() {
+        MergeThread thread;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            thread = this.thread;
+        }
+        if (thread != null) thread.join();
+    }
+
+    private class MergeThread extends Thread {
+
+        @Override
+        @SneakyThrows
+        public void run() {
+            while (awaitMergeRequest())
+                maybeMerge();
+        }
+    }
+
+    public static Builder builder(Path path) {
+        return new Builder(path);
+    }
+
+    public static Builder builder(String path) {
+        return new Builder(path);
+    }
+
+    public static class Builder {
+        private final Path path;
+        private int zonesCount = 1;
+        private Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory = NotEncodedOutputStream::new;
+        private Function<InputStream, EncodedInputStream> encodedInputStreamFactory = NotEncodedInputStream::new;
+        private Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory;
+        private Function<InputStream, EncodedInputStream> postingsInputStreamFactory;
+        private BiFunction<NumericInputStream, TermDictionary, InBlock> inBlockFactory = DefaultInBlock::new;
+        private int postingSize = 1;
+        private int mergeFactor = 10;
+        private int termsPerBlock = VocabularyFrontEncoder.DEFAULT_TERMS_PER_BLOCK;
+        private VocabularyFormat vocabularyFormat = VocabularyFormat.FRONT_CODED;
+        private long maxBytesPerSecond;
+
+        private Builder(Path path) {
+            this.path = path;
+        }
+
+        private Builder(String path) {
+            this.path = Path.of(path);
+        }
+
+        public Builder zonesCount(int zonesCount) {
+            this.zonesCount = zonesCount;
+            return this;
+        }
+
+        public Builder encodedOutputStreamFactory(Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory) {
+            this.encodedOutputStreamFactory = encodedOutputStreamFactory;
+            return this;
+        }
+
+        public Builder encodedInputStreamFactory(Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
+            this.encodedInputStreamFactory = encodedInputStreamFactory;
+            return this;
+        }
+
+        // the codecs of the postings files, the index codecs when not set
+        public Builder postingsOutputStreamFactory(Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory) {
+            this.postingsOutputStreamFactory = postingsOutputStreamFactory;
+            return this;
+        }
+
+        public Builder postingsInputStreamFactory(Function<InputStream, EncodedInputStream> postingsInputStreamFactory) {
+            this.postingsInputStreamFactory = postingsInputStreamFactory;
+            return this;
+        }
+
+        // the number of ints per posting in the block files read by in-blocks, 2 for tf-aware blocks
+        public Builder inBlockFactory(BiFunction<NumericInputStream, TermDictionary, InBlock> inBlockFactory, int postingSize) {
+            this.inBlockFactory = inBlockFactory;
+            this.postingSize = postingSize;
+            return this;
+        }
+
+        public Builder mergeFactor(int mergeFactor) {
+            this.mergeFactor = mergeFactor;
+            return this;
+        }
+
+        public Builder termsPerBlock(int termsPerBlock) {
+            this.termsPerBlock = termsPerBlock;
+            return this;
+        }
+
+        public Builder vocabularyFormat(VocabularyFormat vocabularyFormat) {
+            this.vocabularyFormat = vocabularyFormat;
+            return this;
+        }
+
+        public Builder maxBytesPerSecond(long maxBytesPerSecond) {
+            this.maxBytesPerSecond = maxBytesPerSecond;
+            return this;
+        }
+
+        public SegmentMerger build() {
+            return new SegmentMerger(path, zonesCount, encodedOutputStreamFactory, encodedInputStreamFactory,
+                    postingsOutputStreamFactory != null ? postingsOutputStreamFactory : encodedOutputStreamFactory,
+                    postingsInputStreamFactory != null ? postingsInputStreamFactory : encodedInputStreamFactory, inBlockFactory,
+                    postingSize, mergeFactor, new VocabularyInfo(termsPerBlock, vocabularyFormat), maxBytesPerSecond);
+        }
+    }
+}
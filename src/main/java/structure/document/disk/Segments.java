@@ -0,0 +1,147 @@
+package structure.document.disk;
+
+import lombok.SneakyThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static structure.document.disk.Indexer.*;
+
+public abstract class Segments {
+
+    public static final String SEGMENT_DIRECTORY_PREFIX = "segment-";
+    private static final String[] SEGMENT_FILE_NAMES = {
+            DOCUMENTS_MAP_FILE_NAME, VOCABULARY_TABLE_FILE_NAME, POSTINGS_FILE_NAME
+    };
+    // the terms are in one of the vocabulary files, depending on the vocabulary format
+    private static final String[] OPTIONAL_SEGMENT_FILE_NAMES = {
+            DELETED_DOCUMENTS_FILE_NAME, VocabularyInfo.FILE_NAME, VOCABULARY_STRING_FILE_NAME, VOCABULARY_FST_FILE_NAME
+    };
+    private static final Map<Path, Lock> LOCKS = new ConcurrentHashMap<>();
+
+    // serializes manifest updates of the indexer and the segment merger working on the same directory
+    public static Lock lock(Path indexDirectory) {
+        return LOCKS.computeIfAbsent(indexDirectory.toAbsolutePath().normalize(), p -> new ReentrantLock());
+    }
+
+    @SneakyThrows
+    public static List<Info> read(Path indexDirectory) {
+        List<Info> segments = new ArrayList<>();
+        Path manifest = indexDirectory.resolve(SEGMENTS_FILE_NAME);
+        if (!Files.exists(manifest)) return segments;
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) continue;
+            String[] parts = line.split(" ");
+            segments.add(new Info(parts[0], Integer.parseInt(parts[1])));
+        }
+        return segments;
+    }
+
+    @SneakyThrows
+    public static void write(Path indexDirectory, List<Info> segments) {
+        Path manifest = indexDirectory.resolve(SEGMENTS_FILE_NAME);
+        Path temporary = indexDirectory.resolve(SEGMENTS_FILE_NAME + ".tmp");
+        Files.write(temporary, segments.stream().map(s -> s.name() + " " + s.documentsCount()).toList(), StandardCharsets.UTF_8);
+        Files.move(temporary, manifest, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    @SneakyThrows
+    public static List<Info> readOrMigrate(Path indexDirectory) {
+        List<Info> segments = read(indexDirectory);
+        if (!segments.isEmpty() || !Files.exists(indexDirectory.resolve(POSTINGS_FILE_NAME)))
+            return segments;
+        Path segmentDirectory = create(indexDirectory);
+        int documentsCount;
+        try (Stream<String> lines = Files.lines(indexDirectory.resolve(DOCUMENTS_MAP_FILE_NAME), StandardCharsets.UTF_8)) {
+            documentsCount = (int) lines.count();
+        }
+        for (String fileName : SEGMENT_FILE_NAMES)
+            Files.move(indexDirectory.resolve(fileName), segmentDirectory.resolve(fileName));
+        for (String fileName : OPTIONAL_SEGMENT_FILE_NAMES) {
+            if (Files.exists(indexDirectory.resolve(fileName)))
+                Files.move(indexDirectory.resolve(fileName), segmentDirectory.resolve(fileName));
+        }
+        segments.add(new Info(segmentDirectory.getFileName().toString(), documentsCount));
+        write(indexDirectory, segments);
+        return segments;
+    }
+
+    // segment directories are created before they are recorded in the manifest, so both are scanned for taken names
+    @SneakyThrows
+    public static Path create(Path indexDirectory) {
+        int next = 0;
+        try (Stream<Path> files = Files.list(indexDirectory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (Files.isDirectory(file) && name.startsWith(SEGMENT_DIRECTORY_PREFIX))
+                    next = Math.max(next, Integer.parseInt(name.substring(SEGMENT_DIRECTORY_PREFIX.length())) + 1);
+            }
+        }
+        return Files.createDirectory(indexDirectory.resolve(SEGMENT_DIRECTORY_PREFIX + next));
+    }
+
+    public static void add(Path indexDirectory, Info segment) {
+        List<Info> segments = read(indexDirectory);
+        segments.add(segment);
+        write(indexDirectory, segments);
+    }
+
+    @SneakyThrows
+    public static void clear(Path indexDirectory) {
+        try (Stream<Path> files = Files.list(indexDirectory)) {
+            for (Path file : files.toList()) {
+                if (Files.isDirectory(file) && file.getFileName().toString().startsWith(SEGMENT_DIRECTORY_PREFIX))
+                    delete(file);
+            }
+        }
+        Files.deleteIfExists(indexDirectory.resolve(SEGMENTS_FILE_NAME));
+        Files.deleteIfExists(indexDirectory.resolve(DELETED_DOCUMENTS_FILE_NAME));
+        Files.deleteIfExists(indexDirectory.resolve(VocabularyInfo.FILE_NAME));
+    }
+
+    @SneakyThrows
+    public static BitSet readDeleted(Path segmentDirectory) {
+        Path file = segmentDirectory.resolve(DELETED_DOCUMENTS_FILE_NAME);
+        return Files.exists(file) ? BitSet.valueOf(Files.readAllBytes(file)) : new BitSet();
+    }
+
+    // the ids documents get once deleted documents are dropped, up to the last deleted document
+    public static int[] liveIds(BitSet deleted) {
+        int[] liveIds = new int[deleted.length()];
+        for (int id = 0, liveId = 0; id < liveIds.length; id++) {
+            liveIds[id] = liveId;
+            if (!deleted.get(id)) ++liveId;
+        }
+        return liveIds;
+    }
+
+    @SneakyThrows
+    public static void writeDeleted(Path segmentDirectory, BitSet deleted) {
+        Path temporary = segmentDirectory.resolve(DELETED_DOCUMENTS_FILE_NAME + ".tmp");
+        Files.write(temporary, deleted.toByteArray());
+        Files.move(temporary, segmentDirectory.resolve(DELETED_DOCUMENTS_FILE_NAME), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    @SneakyThrows
+    public static void delete(Path segmentDirectory) {
+        if (!Files.exists(segmentDirectory)) return;
+        try (Stream<Path> files = Files.walk(segmentDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.deleteIfExists(file);
+        }
+    }
+
+    public record Info(String name, int documentsCount) {}
+}
@@ -0,0 +1,215 @@
+package structure.document.disk;
+
+import document.Document;
+import document.DocumentLoader;
+import document.FileDocument;
+import encoders.*;
+import lombok.SneakyThrows;
+import tokenizer.DefaultTokenizer;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+// splits the documents by id range between local JVM processes, each of them builds a partial index of its shard
+// with its own heap, and merges the shards into one index; shard processes load the documents by their file names
+// and tokenize them with the default tokenizer
+public class ShardIndexer {
+
+    public static final String SHARD_DIRECTORY_PREFIX = "shard-";
+    private static final String DOCUMENTS_FILE_NAME = "shard-documents";
+
+    private final Path path;
+    private final int shardsCount;
+    private final int zonesCount;
+    private final boolean tfAware;
+    private final List<String> jvmOptions;
+    private final SegmentMerger merger;
+
+    @SneakyThrows
+    private ShardIndexer(Path path, int shardsCount, int zonesCount, boolean tfAware, List<String> jvmOptions,
+                         Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory,
+                         Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory, int termsPerBlock,
+                         VocabularyFormat vocabularyFormat)
+    {
+        Files.createDirectories(path);
+        this.path = path;
+        this.shardsCount = shardsCount;
+        this.zonesCount = zonesCount;
+        this.tfAware = tfAware;
+        this.jvmOptions = jvmOptions;
+        // shard indexes are temporary, so they are always compressed regardless of the index codec
+        this.merger = SegmentMerger.builder(path)
+                .zonesCount(zonesCount)
+                .encodedOutputStreamFactory(encodedOutputStreamFactory)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .postingsOutputStreamFactory(postingsOutputStreamFactory)
+                .inBlockFactory(tfAware ? TfAwareInBlock::new : DefaultInBlock::new, tfAware ? 2 : 1)
+                .termsPerBlock(termsPerBlock)
+                .vocabularyFormat(vocabularyFormat)
+                .build();
+    }
+
+    @SneakyThrows
+    public void index(Collection<Document> documents) {
+        if (documents.isEmpty()) return;
+        Lock lock = Segments.lock(path);
+        lock.lock();
+        List<Process> processes = new ArrayList<>();
+        try {
+            Segments.clear(path);
+            List<Path> shards = writeShards(new ArrayList<>(documents));
+            for (Path shard : shards)
+                processes.add(start(shard));
+            for (int i = 0; i < processes.size(); i++) {
+                int exitCode = processes.get(i).waitFor();
+                if (exitCode != 0)
+                    throw new IllegalStateException("Shard " + i + " failed with exit code " + exitCode);
+            }
+            merger.mergeShards(shards);
+            for (Path shard : shards)
+                Segments.delete(shard);
+        } finally {
+            for (Process process : processes)
+                process.destroy();
+            lock.unlock();
+        }
+    }
+
+    @SneakyThrows
+    private List<Path> writeShards(List<Document> documents) {
+        int count = Math.min(shardsCount, documents.size());
+        List<Path> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Path shard = path.resolve(SHARD_DIRECTORY_PREFIX + i);
+            Segments.delete(shard);
+            Files.createDirectories(shard);
+            List<String> names = new ArrayList<>();
+            for (Document document : documents.subList(i * documents.size() / count, (i + 1) * documents.size() / count)) {
+                if (!(document instanceof FileDocument))
+                    throw new IllegalArgumentException("Shard processes can only load file documents: " + document.getName());
+                names.add(document.getName());
+            }
+            Files.write(shard.resolve(DOCUMENTS_FILE_NAME), names, StandardCharsets.UTF_8);
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    // shard processes run the classes of this process, with its preview setting
+    @SneakyThrows
+    private Process start(Path shard) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ManagementFactory.getRuntimeMXBean().getInputArguments().contains("--enable-preview"))
+            command.add("--enable-preview");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardIndexer.class.getName());
+        command.add(shard.toString());
+        command.add(String.valueOf(zonesCount));
+        command.add(String.valueOf(tfAware));
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    // the entry point of a shard process: <shard directory> <zones count> <tf-aware>
+    @SneakyThrows
+    public static void main(String[] args) {
+        Path shard = Path.of(args[0]);
+        boolean tfAware = Boolean.parseBoolean(args[2]);
+        List<Document> documents = Files.readAllLines(shard.resolve(DOCUMENTS_FILE_NAME), StandardCharsets.UTF_8).stream()
+                .map(DocumentLoader::loadDocument)
+                .toList();
+        SPIMIIndexer.builder(shard)
+                .zonesCount(Integer.parseInt(args[1]))
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .outBlockFactory(tfAware ? TfAwarePackedOutBlock::new : DefaultPackedOutBlock::new)
+                .inBlockFactory(tfAware ? TfAwareInBlock::new : DefaultInBlock::new)
+                .build()
+                .index(documents, new DefaultTokenizer());
+    }
+
+    public static Builder builder(Path path) {
+        return new Builder(path);
+    }
+
+    public static Builder builder(String path) {
+        return new Builder(path);
+    }
+
+    public static class Builder {
+        private final Path path;
+        private int shardsCount = Runtime.getRuntime().availableProcessors();
+        private int zonesCount = 1;
+        private boolean tfAware;
+        private List<String> jvmOptions = List.of();
+        private Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory = NotEncodedOutputStream::new;
+        private Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory;
+        private int termsPerBlock = VocabularyFrontEncoder.DEFAULT_TERMS_PER_BLOCK;
+        private VocabularyFormat vocabularyFormat = VocabularyFormat.FRONT_CODED;
+
+        private Builder(Path path) {
+            this.path = path;
+        }
+
+        private Builder(String path) {
+            this.path = Path.of(path);
+        }
+
+        public Builder shardsCount(int shardsCount) {
+            this.shardsCount = shardsCount;
+            return this;
+        }
+
+        public Builder zonesCount(int zonesCount) {
+            this.zonesCount = zonesCount;
+            return this;
+        }
+
+        public Builder tfAware(boolean tfAware) {
+            this.tfAware = tfAware;
+            return this;
+        }
+
+        // options of every shard process, e.g. its heap size
+        public Builder jvmOptions(String... jvmOptions) {
+            this.jvmOptions = List.of(jvmOptions);
+            return this;
+        }
+
+        public Builder encodedOutputStreamFactory(Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory) {
+            this.encodedOutputStreamFactory = encodedOutputStreamFactory;
+            return this;
+        }
+
+        // the codec of the postings file, the index codec when not set
+        public Builder postingsOutputStreamFactory(Function<OutputStream, EncodedOutputStream> postingsOutputStreamFactory) {
+            this.postingsOutputStreamFactory = postingsOutputStreamFactory;
+            return this;
+        }
+
+        public Builder termsPerBlock(int termsPerBlock) {
+            this.termsPerBlock = termsPerBlock;
+            return this;
+        }
+
+        public Builder vocabularyFormat(VocabularyFormat vocabularyFormat) {
+            this.vocabularyFormat = vocabularyFormat;
+            return this;
+        }
+
+        public ShardIndexer build() {
+            return new ShardIndexer(path, shardsCount, zonesCount, tfAware, jvmOptions, encodedOutputStreamFactory,
+                    postingsOutputStreamFactory != null ? postingsOutputStreamFactory : encodedOutputStreamFactory, termsPerBlock, vocabularyFormat);
+        }
+    }
+}
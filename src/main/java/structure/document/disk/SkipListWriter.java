@@ -0,0 +1,61 @@
+package structure.document.disk;
+
+import encoders.EncodedOutputStream;
+
+import java.util.Arrays;
+
+// posting lists of more than INTERVAL documents end with skip entries: for every INTERVAL-th posting the id before it
+// and its offset in the list, as fixed ints so that they can be read in place, followed by the number of entries;
+// shorter lists have no skip entries, so readers tell them apart by the document frequency
+class SkipListWriter {
+
+    static final int INTERVAL = 128;
+    static final int ENTRY_BYTES = 2 * Integer.BYTES;
+
+    private final long start;
+    private final boolean enabled;
+    private int postings;
+    private int[] entries;
+    private int entriesLength;
+
+    SkipListWriter(long start, int frequency) {
+        this.start = start;
+        this.enabled = hasSkips(frequency);
+        this.entries = enabled ? new int[16] : null;
+    }
+
+    static boolean hasSkips(int frequency) {
+        return frequency > INTERVAL;
+    }
+
+    // called before a posting is written at the position, previousId is the id of the posting before it
+    void posting(long position, int previousId) {
+        if (enabled && postings > 0 && postings % INTERVAL == 0) {
+            if (entriesLength == entries.length)
+                entries = Arrays.copyOf(entries, entriesLength * 2);
+            entries[entriesLength++] = previousId;
+            entries[entriesLength++] = (int) (position - start);
+        }
+        postings++;
+    }
+
+    // ends the postings, returns the position after the skip entries; a codec that readers cannot seek in gets
+    // no entries but their count
+    long finish(EncodedOutputStream os, long position) {
+        position += os.flush();
+        if (!enabled) return position;
+        if (!os.seekable()) entriesLength = 0;
+        byte[] bytes = new byte[entriesLength * Integer.BYTES + Integer.BYTES];
+        for (int i = 0; i < entriesLength; i++)
+            putInt(bytes, i * Integer.BYTES, entries[i]);
+        putInt(bytes, entriesLength * Integer.BYTES, entriesLength / 2);
+        return position + os.write(bytes, 0, bytes.length);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,118 @@
+package structure.document.disk;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TermDictionary {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private final ConcurrentHashMap<String, Integer> ids;
+    private final AtomicInteger nextId;
+    // terms by id, stored in fixed chunks so that lookups need no locking while ids are handed out
+    private volatile String[][] terms;
+    private int[] ranks;
+    private Throwable storeFailure;
+
+    public TermDictionary() {
+        ids = new ConcurrentHashMap<>();
+        nextId = new AtomicInteger();
+        terms = new String[16][];
+    }
+
+    public int id(String term) {
+        Integer id = ids.get(term);
+        if (id != null) return id;
+        return ids.computeIfAbsent(term, this::newId);
+    }
+
+    private int newId(String term) {
+        int id = nextId.getAndIncrement();
+        store(id, term);
+        return id;
+    }
+
+    private synchronized void store(int id, String term) {
+        try {
+            chunk(id >>> CHUNK_BITS)[id & (CHUNK_SIZE - 1)] = term;
+        } catch (Throwable e) {
+            storeFailure = e;
+            throw e;
+        } finally {
+            notifyAll();
+        }
+    }
+
+    private String[] chunk(int index) {
+        if (index >= terms.length)
+            terms = Arrays.copyOf(terms, Math.max(terms.length * 2, index + 1));
+        if (terms[index] == null)
+            terms[index] = new String[CHUNK_SIZE];
+        return terms[index];
+    }
+
+    public String term(int id) {
+        return terms[id >>> CHUNK_BITS][id & (CHUNK_SIZE - 1)];
+    }
+
+    // ids are handed out before their terms are stored, so the term of an id below size() may still be on its way
+    public synchronized String awaitTerm(int id) throws InterruptedException {
+        String term;
+        while ((term = storedTerm(id)) == null) {
+            if (storeFailure != null) throw new IllegalStateException("Term " + id + " was not stored", storeFailure);
+            wait();
+        }
+        return term;
+    }
+
+    private String storedTerm(int id) {
+        int index = id >>> CHUNK_BITS;
+        String[] chunk = index < terms.length ? terms[index] : null;
+        return chunk == null ? null : chunk[id & (CHUNK_SIZE - 1)];
+    }
+
+    public int size() {
+        return nextId.get();
+    }
+
+    // ranks are the positions of the terms in sorted order, computed once all terms have been added
+    public void sort() {
+        int[] sortedIds = new int[size()];
+        for (int id = 0; id < sortedIds.length; id++)
+            sortedIds[id] = id;
+        Utils.sort(sortedIds, (left, right) -> compare(term(left), term(right)));
+        ranks = new int[sortedIds.length];
+        for (int rank = 0; rank < sortedIds.length; rank++)
+            ranks[sortedIds[rank]] = rank;
+    }
+
+    // terms are ordered by code points, which is the unsigned byte order of their UTF-8 encoding that lookups compare,
+    // unlike String.compareTo that puts surrogate pairs below the chars from U+E000
+    public static int compare(String left, String right) {
+        int length = Math.min(left.length(), right.length());
+        for (int i = 0; i < length; i++) {
+            char l = left.charAt(i);
+            char r = right.charAt(i);
+            if (l == r) continue;
+            if (l >= Character.MIN_SURROGATE && r >= Character.MIN_SURROGATE)
+                return codePointOrder(l) - codePointOrder(r);
+            return l - r;
+        }
+        return left.length() - right.length();
+    }
+
+    // moves surrogates above the rest of the chars from U+D800
+    private static int codePointOrder(char c) {
+        return Character.isSurrogate(c) ? c + 0x2000 : c - 0x800;
+    }
+
+    public int rank(int id) {
+        return ranks[id];
+    }
+
+    public int rank(String term) {
+        return ranks[ids.get(term)];
+    }
+}
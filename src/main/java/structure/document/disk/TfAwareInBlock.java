@@ -1,43 +1,58 @@
 package structure.document.disk;
 
-import encoders.EncodedInputStream;
 import encoders.EncodedOutputStream;
+import encoders.NumericInputStream;
 import encoders.VocabularyEncoder;
 import lombok.SneakyThrows;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.PriorityQueue;
 
 public class TfAwareInBlock implements InBlock {
 
-    private final EncodedInputStream is;
-    private String currentTerm;
+    private final NumericInputStream is;
+    private final TermDictionary dictionary;
+    private int currentTermId;
     private int currentFrequency;
-    private List<DocumentInfo> currentInfos;
+    // postings of the current term are read one at a time while the merge result is saved
+    private int remainingInfos;
+    private int currentId;
+    private int currentTermFrequency;
 
-    public TfAwareInBlock(EncodedInputStream is) {
+    public TfAwareInBlock(NumericInputStream is, TermDictionary dictionary) {
         this.is = is;
+        this.dictionary = dictionary;
     }
 
     @SneakyThrows
     public boolean advance() {
-        currentTerm = is.readString();
+        while (remainingInfos > 0) nextInfo();
+
+        currentTermId = is.readInt();
 
         currentFrequency = is.readInt();
 
-        int infosCount = is.readInt();
-        currentInfos = new ArrayList<>(infosCount);
-        for (int i = 0; i < infosCount; i++) {
-            int id = is.readInt();
-            int frequency = is.readInt();
-            currentInfos.add(new DocumentInfo(id, frequency));
-        }
+        remainingInfos = is.readInt();
+        currentId = 0;
 
         return !is.eofReached();
     }
 
+    private boolean nextInfo() {
+        if (remainingInfos == 0) return false;
+        --remainingInfos;
+        currentId += is.readInt();
+        currentTermFrequency = is.readInt();
+        return true;
+    }
+
+    @Override
+    public int getTermId() {
+        return currentTermId;
+    }
+
     @Override
     public MergeResult toMergeResult() {
         return new TfAwareBlockMergeResult(this);
@@ -51,61 +66,66 @@ public class TfAwareInBlock implements InBlock {
     @Override
     public int compareTo(InBlock other) {
         if (other instanceof TfAwareInBlock o)
-            return currentTerm.compareTo(o.currentTerm);
+            return Integer.compare(dictionary.rank(currentTermId), dictionary.rank(o.currentTermId));
         return -1;
     }
 
     private static class TfAwareBlockMergeResult implements MergeResult {
 
-        private final String term;
+        private final int termId;
+        private final TermDictionary dictionary;
         private int frequency;
-        private final LinkedList<DocumentInfo> infos;
+        private final List<TfAwareInBlock> blocks;
 
         public TfAwareBlockMergeResult(TfAwareInBlock block) {
-            this.term = block.currentTerm;
+            this.termId = block.currentTermId;
+            this.dictionary = block.dictionary;
             this.frequency = block.currentFrequency;
-            this.infos = new LinkedList<>(block.currentInfos);
+            this.blocks = new ArrayList<>();
+            this.blocks.add(block);
         }
 
         @Override
         public boolean shouldMerge(InBlock block) {
-            return (block instanceof TfAwareInBlock b) && term.equals(b.currentTerm);
+            return (block instanceof TfAwareInBlock b) && termId == b.currentTermId;
         }
 
         @Override
         public void merge(InBlock block) {
             if (!(block instanceof TfAwareInBlock b)) return;
             frequency += b.currentFrequency;
-            merge(infos, b.currentInfos);
-        }
-
-        private void merge(LinkedList<DocumentInfo> left, List<DocumentInfo> right) {
-            ListIterator<DocumentInfo> leftIterator = left.listIterator();
-            for (DocumentInfo r : right) {
-                while (leftIterator.hasNext()) {
-                    DocumentInfo l = leftIterator.next();
-                    // ids in different blocks are never equal
-                    if (l.id > r.id) {
-                        leftIterator.previous();
-                        break;
-                    }
-                }
-                leftIterator.add(r);
-            }
+            blocks.add(b);
         }
 
         @Override
         public long save(long position, EncodedOutputStream osPostings, VocabularyEncoder osVocabulary) {
-            osVocabulary.write(term, frequency, position);
+            osVocabulary.write(dictionary.term(termId), frequency, position);
+            SkipListWriter skips = new SkipListWriter(position, frequency);
             int previousDocumentId = 0;
-            for (DocumentInfo info : infos) {
-                position += osPostings.write(info.id - previousDocumentId);
-                position += osPostings.write(info.frequency);
-                previousDocumentId = info.id;
+            if (blocks.size() == 1) {
+                TfAwareInBlock block = blocks.getFirst();
+                while (block.nextInfo()) {
+                    skips.posting(position, previousDocumentId);
+                    position += osPostings.write(block.currentId - previousDocumentId);
+                    position += osPostings.write(block.currentTermFrequency);
+                    previousDocumentId = block.currentId;
+                }
+                return skips.finish(osPostings, position);
             }
-            return position;
+            // ids in different blocks are never equal, but blocks of different threads interleave
+            PriorityQueue<TfAwareInBlock> queue = new PriorityQueue<>(blocks.size(), Comparator.comparingInt(b -> b.currentId));
+            for (TfAwareInBlock block : blocks) {
+                if (block.nextInfo()) queue.add(block);
+            }
+            while (!queue.isEmpty()) {
+                TfAwareInBlock block = queue.poll();
+                skips.posting(position, previousDocumentId);
+                position += osPostings.write(block.currentId - previousDocumentId);
+                position += osPostings.write(block.currentTermFrequency);
+                previousDocumentId = block.currentId;
+                if (block.nextInfo()) queue.add(block);
+            }
+            return skips.finish(osPostings, position);
         }
     }
-
-    private record DocumentInfo(int id, int frequency) {}
 }
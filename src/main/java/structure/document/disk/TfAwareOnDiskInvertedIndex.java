@@ -7,7 +7,6 @@ import structure.document.TfAwareIndex;
 import tokenizer.DefaultTokenizer;
 import tokenizer.Tokenizer;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -18,14 +17,16 @@ import java.util.function.Function;
 public class TfAwareOnDiskInvertedIndex extends OnDiskInvertedIndex implements TfAwareIndex {
 
     private TfAwareOnDiskInvertedIndex(Path indexDirectory, Tokenizer tokenizer, int zonesCount,
-                                       Function<InputStream, EncodedInputStream> encodedInputStreamFactory) {
-        super(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory);
+                                       Function<InputStream, EncodedInputStream> encodedInputStreamFactory,
+                                       Function<InputStream, EncodedInputStream> postingsInputStreamFactory, boolean memoryMapped,
+                                       PostingListCache postingListCache) {
+        super(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory, postingsInputStreamFactory, memoryMapped, postingListCache);
     }
 
     @Override
-    protected List<Integer> extractIds(EncodedInputStream is, PostingListInfo info) {
+    protected List<Integer> extractIds(EncodedInputStream is, PostingListInfo info, int idBase) {
         List<Integer> result = new ArrayList<>(info.frequency());
-        int previousId = 0;
+        int previousId = idBase;
         for (int i = 0; i < info.frequency(); i++) {
             previousId += is.readInt();
             is.readInt(); // skip frequency
@@ -35,20 +36,36 @@ public class TfAwareOnDiskInvertedIndex extends OnDiskInvertedIndex implements T
     }
 
     @Override
-    @SneakyThrows
+    public List<Integer> getDocumentIds(String term, List<Integer> among) {
+        return getDocumentIds(term, among, 2);
+    }
+
+    @Override
     public List<TfAwareIndex.Entry> getEntries(String term) {
-        int index = getPostingListInfoIndex(term);
-        if (index == -1) return List.of();
-        return getEntries(index);
+        int termId = getTermId(term);
+        return termId == -1 ? List.of() : getEntries(termId);
     }
 
-    @SneakyThrows
+    @Override
     public List<TfAwareIndex.Entry> getEntries(int termId) {
-        PostingListInfo info = postingListInfos.get(termId);
-        byte[] list = readPostingList(termId, info);
-        try (EncodedInputStream is = encodedInputStreamFactory.apply(new ByteArrayInputStream(list))) {
+        return postingListCache.get(termId, PostingListCache.Kind.ENTRIES, () -> decodeEntries(termId));
+    }
+
+    private List<TfAwareIndex.Entry> decodeEntries(int termId) {
+        List<TfAwareIndex.Entry> result = List.of();
+        for (Segment segment : segments) {
+            int index = segment.getLocalTermIndex(termId);
+            if (index != -1) result = concat(result, extractEntries(segment, index));
+        }
+        return result;
+    }
+
+    @SneakyThrows
+    private List<TfAwareIndex.Entry> extractEntries(Segment segment, int index) {
+        PostingListInfo info = segment.getPostingListInfo(index);
+        try (EncodedInputStream is = segment.openPostingList(index)) {
             List<TfAwareIndex.Entry> result = new ArrayList<>(info.frequency());
-            int previousId = 0;
+            int previousId = segment.idBase();
             for (int i = 0; i < info.frequency(); i++) {
                 previousId += is.readInt();
                 int frequency = is.readInt();
@@ -65,7 +82,12 @@ public class TfAwareOnDiskInvertedIndex extends OnDiskInvertedIndex implements T
 
     @Override
     public double getIdf(int termId) {
-        return calculateIdf(postingListInfos.get(termId).frequency());
+        int frequency = 0;
+        for (Segment segment : segments) {
+            int index = segment.getLocalTermIndex(termId);
+            if (index != -1) frequency += segment.getFrequency(index);
+        }
+        return calculateIdf(frequency);
     }
 
     private double calculateIdf(int documentFrequency) {
@@ -105,6 +127,9 @@ public class TfAwareOnDiskInvertedIndex extends OnDiskInvertedIndex implements T
         private Tokenizer tokenizer = new DefaultTokenizer();
         private int zonesCount = 1;
         private Function<InputStream, EncodedInputStream> encodedInputStreamFactory = NotEncodedInputStream::new;
+        private Function<InputStream, EncodedInputStream> postingsInputStreamFactory;
+        private boolean memoryMapped;
+        private PostingListCache postingListCache = PostingListCache.NONE;
 
         private Builder(Path indexDirectory) {
             this.indexDirectory = indexDirectory;
@@ -129,8 +154,26 @@ public class TfAwareOnDiskInvertedIndex extends OnDiskInvertedIndex implements T
             return this;
         }
 
+        // the codec of the postings file, the index codec when not set
+        public Builder postingsInputStreamFactory(Function<InputStream, EncodedInputStream> postingsInputStreamFactory) {
+            this.postingsInputStreamFactory = postingsInputStreamFactory;
+            return this;
+        }
+
+        public Builder memoryMapped(boolean memoryMapped) {
+            this.memoryMapped = memoryMapped;
+            return this;
+        }
+
+        public Builder postingListCache(PostingListCache postingListCache) {
+            this.postingListCache = postingListCache;
+            return this;
+        }
+
         public TfAwareOnDiskInvertedIndex build() {
-            return new TfAwareOnDiskInvertedIndex(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory);
+            return new TfAwareOnDiskInvertedIndex(indexDirectory, tokenizer, zonesCount, encodedInputStreamFactory,
+                    postingsInputStreamFactory != null ? postingsInputStreamFactory : encodedInputStreamFactory, memoryMapped,
+                    postingListCache);
         }
     }
 }
@@ -3,17 +3,20 @@ package structure.document.disk;
 import encoders.EncodedOutputStream;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static structure.document.disk.Utils.*;
+
 public class TfAwareOutBlock implements OutBlock {
 
-    private static final int POSTING_SIZE = 24;
-    private static final int TERM_SIZE = 80;
+    private static final int TERM_INFO_SIZE = objectSize(Integer.BYTES + REFERENCE_SIZE);
+    private static final int DOCUMENT_INFO_SIZE = objectSize(2 * Integer.BYTES);
     private final int zonesCount;
-    private final Map<String, TermInfo> block;
-    private long postingsSize;
+    private final Map<Integer, TermInfo> block;
+    private long entriesSize;
 
     public TfAwareOutBlock(int zonesCount) {
         this.zonesCount = zonesCount;
@@ -22,7 +25,7 @@ public class TfAwareOutBlock implements OutBlock {
 
     @Override
     public long size() {
-        return (long)block.size() * TERM_SIZE + postingsSize;
+        return entriesSize + hashMapTableSize(block.size());
     }
 
     @Override
@@ -31,17 +34,22 @@ public class TfAwareOutBlock implements OutBlock {
     }
 
     @Override
-    public void add(String term, int id) {
-        TermInfo t = block.computeIfAbsent(term, _ -> new TermInfo(id));
+    public void add(int termId, int id) {
+        TermInfo t = block.get(termId);
+        if (t == null) {
+            t = new TermInfo();
+            block.put(termId, t);
+            entriesSize += HASH_MAP_NODE_SIZE + boxedIntegerSize(termId) + TERM_INFO_SIZE + ARRAY_LIST_SIZE + t.add(id);
+            return;
+        }
         DocumentInfo last = t.postingList.getLast();
         if (last.id == id) {
             ++last.frequency;
         }
         else {
-            t.postingList.add(new DocumentInfo(id, 1));
+            entriesSize += t.add(id);
             if (documentId(id) != documentId(last.id))
                 ++t.frequency;
-            postingsSize += POSTING_SIZE;
         }
     }
 
@@ -50,29 +58,45 @@ public class TfAwareOutBlock implements OutBlock {
     }
 
     @Override
-    public void flush(EncodedOutputStream os) {
-        block.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(
-                e -> {
-                    TermInfo termInfo = e.getValue();
-                    os.write(e.getKey());
-                    os.write(termInfo.frequency);
-                    os.write(termInfo.postingList.size());
-                    for (DocumentInfo info : termInfo.postingList) {
-                        os.write(info.id);
-                        os.write(info.frequency);
-                    }
-                }
-        );
+    public BlockIndex flush(EncodedOutputStream os, TermDictionary dictionary) {
+        BlockIndex index = new BlockIndex();
+        long position = 0;
+        for (Map.Entry<Integer, TermInfo> e : block.entrySet().stream().sorted(Map.Entry.comparingByKey(Comparator.comparing(dictionary::term, TermDictionary::compare))).toList()) {
+            TermInfo termInfo = e.getValue();
+            if (index.samplesNext()) position += os.flush();
+            index.offer(dictionary.term(e.getKey()), position);
+            position += os.write(e.getKey());
+            position += os.write(termInfo.frequency);
+            position += os.write(termInfo.postingList.size());
+            int previousDocumentId = 0;
+            for (DocumentInfo info : termInfo.postingList) {
+                position += os.write(info.id - previousDocumentId);
+                previousDocumentId = info.id;
+                position += os.write(info.frequency);
+            }
+        }
+        return index;
     }
 
     private static final class TermInfo {
         private int frequency;
         private final List<DocumentInfo> postingList;
+        private int capacity;
 
-        public TermInfo(int initialId) {
+        public TermInfo() {
             frequency = 1;
             postingList = new ArrayList<>();
-            postingList.add(new DocumentInfo(initialId, 0));
+        }
+
+        public long add(int id) {
+            long grown = DOCUMENT_INFO_SIZE;
+            if (postingList.size() == capacity) {
+                int newCapacity = arrayListGrownCapacity(capacity);
+                grown += arraySize(newCapacity, REFERENCE_SIZE) - (capacity == 0 ? 0 : arraySize(capacity, REFERENCE_SIZE));
+                capacity = newCapacity;
+            }
+            postingList.add(new DocumentInfo(id, 1));
+            return grown;
         }
     }
 
@@ -1,9 +1,98 @@
 package structure.document.disk;
 
+import java.util.function.IntBinaryOperator;
+
 public abstract class Utils {
 
+    // object layout of a 64-bit HotSpot JVM with compressed oops
+    public static final int OBJECT_HEADER_SIZE = 12;
+    public static final int ARRAY_HEADER_SIZE = 16;
+    public static final int REFERENCE_SIZE = 4;
+    public static final int HASH_MAP_NODE_SIZE = objectSize(Integer.BYTES + 3 * REFERENCE_SIZE);
+    public static final int ARRAY_LIST_SIZE = objectSize(2 * Integer.BYTES + REFERENCE_SIZE);
+    public static final int ARRAY_LIST_INITIAL_CAPACITY = 10;
+    private static final int OBJECT_ALIGNMENT = 8;
+    private static final int HASH_MAP_MIN_TABLE_SIZE = 16;
+    private static final int STRING_FIELDS_SIZE = REFERENCE_SIZE + Integer.BYTES + 2;
+    private static final int INSERTION_SORT_LENGTH = 16;
+
     public static long freeMemory() {
         Runtime runtime = Runtime.getRuntime();
         return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
     }
+
+    public static int objectSize(int fieldsSize) {
+        return (int) align(OBJECT_HEADER_SIZE + fieldsSize);
+    }
+
+    public static long arraySize(int length, int elementSize) {
+        return align(ARRAY_HEADER_SIZE + (long) length * elementSize);
+    }
+
+    public static long stringSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++)
+            latin1 = value.charAt(i) <= 0xFF;
+        return objectSize(STRING_FIELDS_SIZE) + arraySize(value.length(), latin1 ? 1 : 2);
+    }
+
+    public static int boxedIntegerSize(int value) {
+        // values from the Integer cache are shared
+        return value >= -128 && value <= 127 ? 0 : objectSize(Integer.BYTES);
+    }
+
+    public static int arrayListGrownCapacity(int capacity) {
+        return capacity == 0 ? ARRAY_LIST_INITIAL_CAPACITY : capacity + (capacity >> 1);
+    }
+
+    public static long hashMapTableSize(int entries) {
+        if (entries == 0) return 0;
+        int tableSize = HASH_MAP_MIN_TABLE_SIZE;
+        while (entries > tableSize * 3L / 4)
+            tableSize <<= 1;
+        return arraySize(tableSize, REFERENCE_SIZE);
+    }
+
+    // the slot of the key in an open addressing table of a power of two length, or the empty slot it goes to;
+    // a slot is empty while its value is null
+    public static int tableSlot(int[] keys, Object[] values, int key) {
+        int mask = values.length - 1;
+        int slot = (key * 0x9E3779B9) >>> (Integer.numberOfLeadingZeros(values.length) + 1);
+        while (values[slot] != null && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private static long align(long size) {
+        return (size + OBJECT_ALIGNMENT - 1) & -OBJECT_ALIGNMENT;
+    }
+
+    // sorts ints, such as term ids or table slots, by a comparator of what they refer to without boxing them;
+    // a merge sort between the values and a copy of them
+    public static void sort(int[] values, IntBinaryOperator comparator) {
+        mergeSort(values.clone(), values, 0, values.length, comparator);
+    }
+
+    // sorts the range of the destination, the source holds the same values in the range and is left unordered
+    private static void mergeSort(int[] source, int[] destination, int from, int to, IntBinaryOperator comparator) {
+        if (to - from <= INSERTION_SORT_LENGTH) {
+            for (int i = from + 1; i < to; i++) {
+                int value = destination[i];
+                int j = i;
+                for (; j > from && comparator.applyAsInt(destination[j - 1], value) > 0; j--)
+                    destination[j] = destination[j - 1];
+                destination[j] = value;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(destination, source, from, middle, comparator);
+        mergeSort(destination, source, middle, to, comparator);
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right == to || left < middle && comparator.applyAsInt(source[left], source[right]) <= 0)
+                destination[i] = source[left++];
+            else
+                destination[i] = source[right++];
+        }
+    }
 }
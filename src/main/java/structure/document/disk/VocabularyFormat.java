@@ -0,0 +1,7 @@
+package structure.document.disk;
+
+// front coding is the more compact, a transducer looks terms up without decoding blocks and enumerates prefixes
+public enum VocabularyFormat {
+    FRONT_CODED,
+    FST
+}
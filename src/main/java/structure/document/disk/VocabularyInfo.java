@@ -0,0 +1,53 @@
+package structure.document.disk;
+
+import encoders.EncodedOutputStream;
+import encoders.VocabularyEncoder;
+import encoders.VocabularyFrontEncoder;
+import encoders.VocabularyFstEncoder;
+import lombok.SneakyThrows;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+// the layout of the vocabulary files of an index or a segment; directories written before it was recorded use the defaults
+public record VocabularyInfo(int termsPerBlock, VocabularyFormat format) {
+
+    public static final String FILE_NAME = "vocabulary-info";
+    public static final VocabularyInfo DEFAULT = new VocabularyInfo(VocabularyFrontEncoder.DEFAULT_TERMS_PER_BLOCK, VocabularyFormat.FRONT_CODED);
+
+    @SneakyThrows
+    public static VocabularyInfo read(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) return DEFAULT;
+        int termsPerBlock = DEFAULT.termsPerBlock();
+        VocabularyFormat format = DEFAULT.format();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(" ");
+            if (parts[0].equals("terms-per-block")) termsPerBlock = Integer.parseInt(parts[1]);
+            else if (parts[0].equals("format")) format = VocabularyFormat.valueOf(parts[1]);
+        }
+        return new VocabularyInfo(termsPerBlock, format);
+    }
+
+    @SneakyThrows
+    public void write(Path directory) {
+        Files.write(directory.resolve(FILE_NAME), List.of("terms-per-block " + termsPerBlock, "format " + format), StandardCharsets.UTF_8);
+    }
+
+    // the file the terms are stored in, next to the vocabulary table
+    public String termsFileName() {
+        return format == VocabularyFormat.FST ? Indexer.VOCABULARY_FST_FILE_NAME : Indexer.VOCABULARY_STRING_FILE_NAME;
+    }
+
+    // files are opened by their names, the table and the front-coded strings are written in the index codec
+    public VocabularyEncoder encoder(Function<String, OutputStream> files, Function<OutputStream, EncodedOutputStream> encodedOutputStreamFactory) {
+        EncodedOutputStream osTable = encodedOutputStreamFactory.apply(files.apply(Indexer.VOCABULARY_TABLE_FILE_NAME));
+        if (format == VocabularyFormat.FST)
+            return new VocabularyFstEncoder(files.apply(Indexer.VOCABULARY_FST_FILE_NAME), osTable, termsPerBlock);
+        return new VocabularyFrontEncoder(encodedOutputStreamFactory.apply(files.apply(Indexer.VOCABULARY_STRING_FILE_NAME)), osTable, termsPerBlock);
+    }
+}
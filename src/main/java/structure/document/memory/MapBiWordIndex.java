@@ -76,7 +76,6 @@ public class MapBiWordIndex implements BiWordIndex {
         return documentsMap[id].documentName();
     }
 
-    @Override
     public String getProcessedDocument(int id) {
         if (id < 0 || id >= documentsMap.length)
             return null;
@@ -108,6 +107,14 @@ public class MapBiWordIndex implements BiWordIndex {
         return SEPARATOR;
     }
 
+    @Override
+    public List<Integer> filterPhrase(List<Integer> documentIds, List<String> terms) {
+        String phrase = String.join(SEPARATOR, terms);
+        return documentIds.stream()
+                .filter(id -> getProcessedDocument(id).contains(phrase))
+                .toList();
+    }
+
     private record Pair(String term, int documentId) implements Comparable<Pair> {
         @Override
         public int compareTo(Pair o) {
@@ -0,0 +1,36 @@
+package encoders;
+
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.util.stream.Stream;
+
+public class EliasDeltaEncodedInputStreamTest extends BaseEncodedInputStreamTest {
+
+    public EliasDeltaEncodedInputStreamTest() {
+        super(EliasDeltaEncodedInputStream::new);
+    }
+
+    private static Stream<Arguments> testReadInt() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000000 }, 0),
+                Arguments.of(new byte[] { 0b01000000 }, 1),
+                Arguments.of(new byte[] { 0b00101100, 0b00000000 }, 23),
+                Arguments.of(new byte[] { 0b00011001, 0b01011111, (byte)0b10000000 }, 3453),
+                Arguments.of(new byte[] { 0b00001011, 0b00001111, (byte)0b10100100, 0b00111100 }, 2353422)
+        );
+    }
+
+    private static Stream<Arguments> testReadLong() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000000 }, 0),
+                Arguments.of(new byte[] { 0b00101100, 0b00000000 }, 23),
+                Arguments.of(new byte[] { 0b00000101, (byte)0b11110111, (byte)0b11111110, 0b01110111, 0b00111010, (byte)0b11010110, (byte)0b11011101, 0b00000000 }, 123132123131321L)
+        );
+    }
+
+    private static Stream<Arguments> testReadString() {
+        return Stream.of(
+                Arguments.of(new byte[] { 0b01100011, (byte)0b10001011, (byte)0b10111011, 0b00101000 }, "qwe")
+        );
+    }
+}
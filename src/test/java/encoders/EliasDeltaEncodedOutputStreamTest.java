@@ -0,0 +1,30 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EliasDeltaEncodedOutputStreamTest {
+
+    private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    private final EliasDeltaEncodedOutputStream eos = new EliasDeltaEncodedOutputStream(os);
+
+    @Test
+    public void testWriteInts() {
+        assertEquals(0, eos.write(3));
+        assertEquals(1, eos.write(5));
+        assertEquals(0, eos.write(0));
+        assertEquals(1, eos.flush());
+        assertArrayEquals(new byte[] { 0b01100011, (byte)0b10100000 }, os.toByteArray());
+    }
+
+    @Test
+    public void testWriteLong() {
+        assertEquals(7, eos.write(123132123131321L));
+        assertEquals(1, eos.flush());
+        assertArrayEquals(new byte[] { 0b00000101, (byte)0b11110111, (byte)0b11111110, 0b01110111, 0b00111010, (byte)0b11010110, (byte)0b11011101, 0b00000000 }, os.toByteArray());
+    }
+}
@@ -0,0 +1,36 @@
+package encoders;
+
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.util.stream.Stream;
+
+public class EliasGammaEncodedInputStreamTest extends BaseEncodedInputStreamTest {
+
+    public EliasGammaEncodedInputStreamTest() {
+        super(EliasGammaEncodedInputStream::new);
+    }
+
+    private static Stream<Arguments> testReadInt() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000000 }, 0),
+                Arguments.of(new byte[] { 0b01000000 }, 1),
+                Arguments.of(new byte[] { 0b00001100, 0b00000000 }, 23),
+                Arguments.of(new byte[] { 0b00000000, 0b00011010, (byte)0b11111100 }, 3453),
+                Arguments.of(new byte[] { 0b00000000, 0b00000000, 0b00000100, 0b01111101, 0b00100001, (byte)0b11100000 }, 2353422)
+        );
+    }
+
+    private static Stream<Arguments> testReadLong() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000000 }, 0),
+                Arguments.of(new byte[] { 0b00001100, 0b00000000 }, 23),
+                Arguments.of(new byte[] { 0b00000000, 0b00000000, 0b00000000, 0b00000000, 0b00000000, 0b00000011, 0b01111111, (byte)0b11100111, 0b01110011, (byte)0b10101101, 0b01101101, (byte)0b11010000 }, 123132123131321L)
+        );
+    }
+
+    private static Stream<Arguments> testReadString() {
+        return Stream.of(
+                Arguments.of(new byte[] { 0b00100011, (byte)0b10001011, (byte)0b10111011, 0b00101000 }, "qwe")
+        );
+    }
+}
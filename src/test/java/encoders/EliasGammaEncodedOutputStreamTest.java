@@ -0,0 +1,34 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class EliasGammaEncodedOutputStreamTest {
+
+    private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    private final EliasGammaEncodedOutputStream eos = new EliasGammaEncodedOutputStream(os);
+
+    // codes share bytes, a byte is written once it is full
+    @Test
+    public void testWriteInts() {
+        assertEquals(0, eos.write(3));
+        assertEquals(1, eos.write(5));
+        assertEquals(0, eos.write(0));
+        assertEquals(1, eos.flush());
+        assertArrayEquals(new byte[] { 0b00100001, (byte)0b10100000 }, os.toByteArray());
+        assertEquals(0, eos.flush());
+        assertFalse(eos.seekable());
+    }
+
+    @Test
+    public void testWriteUnsignedInt() {
+        eos.write(-1);
+        eos.flush();
+        assertEquals(1 + 2 * 32 / 8, os.size());
+    }
+}
@@ -0,0 +1,75 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GolombRiceEncodedInputStreamTest extends BaseEncodedInputStreamTest {
+
+    public GolombRiceEncodedInputStreamTest() {
+        super(GolombRiceEncodedInputStream::new);
+    }
+
+    private static Stream<Arguments> testReadInt() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000010 }, 0),
+                Arguments.of(new byte[] { (byte)0b10000001 }, 1),
+                Arguments.of(new byte[] { (byte)0b10001100, (byte)0b11110000 }, 23),
+                Arguments.of(new byte[] { (byte)0b10101101, (byte)0b10101111, (byte)0b10100000 }, 3453),
+                Arguments.of(new byte[] { (byte)0b11010000, (byte)0b10011111, 0b01001000, 0b01110000 }, 2353422)
+        );
+    }
+
+    private static Stream<Arguments> testReadLong() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000000 }, 0),
+                Arguments.of(new byte[] { 0b00001100, 0b00000000 }, 23)
+        );
+    }
+
+    private static Stream<Arguments> testReadString() {
+        return Stream.of(
+                Arguments.of(new byte[] { 0b00100011, (byte)0b10001011, (byte)0b10111011, 0b00101000 }, "qwe")
+        );
+    }
+
+    // geometric gaps across several runs, an outlier past the escape quotient and values in between runs
+    @Test
+    public void testRoundTrip() throws Exception {
+        Random random = new Random(42);
+        int[] values = new int[3000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = (int) (-Math.log(1 - random.nextDouble()) * (i < 1500 ? 40 : 3));
+        values[2000] = 1_000_000;
+        values[2999] = -1;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long written = 0;
+        try (GolombRiceEncodedOutputStream os = new GolombRiceEncodedOutputStream(bytes)) {
+            for (int i = 0; i < values.length; i++) {
+                written += os.write(values[i]);
+                if (i == 100) written += os.write(123456789L);
+                if (i == 1700) written += os.write("term");
+            }
+            written += os.flush();
+        }
+        assertEquals(bytes.size(), written);
+        try (GolombRiceEncodedInputStream is = new GolombRiceEncodedInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(values[i], is.readInt());
+                if (i == 100) assertEquals(123456789L, is.readLong());
+                if (i == 1700) assertEquals("term", is.readString());
+            }
+            assertFalse(is.eofReached());
+            is.readInt();
+            assertTrue(is.eofReached());
+        }
+    }
+}
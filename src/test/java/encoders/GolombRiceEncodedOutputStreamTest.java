@@ -0,0 +1,32 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GolombRiceEncodedOutputStreamTest {
+
+    private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    private final GolombRiceEncodedOutputStream eos = new GolombRiceEncodedOutputStream(os);
+
+    // the run of 3, 5, 0 and 12 has a mean of 5, so its values take 1 low bit after their quotients
+    @Test
+    public void testWriteRun() {
+        for (int value : new int[] { 3, 5, 0, 12 })
+            assertEquals(0, eos.write(value));
+        assertEquals(0, os.size());
+        assertEquals(4, eos.flush());
+        assertArrayEquals(new byte[] { 0b00100000, 0b01011001, (byte)0b11000000, 0b01000000 }, os.toByteArray());
+    }
+
+    @Test
+    public void testEndsRunBeforeLong() {
+        eos.write(1);
+        assertEquals(1, eos.write(0L));
+        eos.flush();
+        assertArrayEquals(new byte[] { (byte)0b10000001, (byte)0b10000000 }, os.toByteArray());
+    }
+}
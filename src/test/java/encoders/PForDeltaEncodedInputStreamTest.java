@@ -0,0 +1,77 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PForDeltaEncodedInputStreamTest extends BaseEncodedInputStreamTest {
+
+    public PForDeltaEncodedInputStreamTest() {
+        super(PForDeltaEncodedInputStream::new);
+    }
+
+    private static Stream<Arguments> testReadInt() {
+        return Stream.of(
+                Arguments.of(new byte[] { 1, 0, 0 }, 0),
+                Arguments.of(new byte[] { 1, 1, 0, 0b00000001 }, 1),
+                Arguments.of(new byte[] { 1, 5, 0, 0b00010111 }, 23),
+                Arguments.of(new byte[] { 1, 12, 0, 0b01111101, 0b00001101 }, 3453),
+                Arguments.of(new byte[] { 1, 0, 1, 0, 0b00000001, 0b00001111, 0b01010010, (byte)0b10001110 }, 2353422)
+        );
+    }
+
+    private static Stream<Arguments> testReadLong() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000000 }, 0),
+                Arguments.of(new byte[] { (byte)0b10010111 }, 23),
+                Arguments.of(new byte[] { 0b00011011, 0b01111111, 0b01001110, 0b01110011, 0b01010110, 0b01011011, (byte)0b10111001 }, 123132123131321L)
+        );
+    }
+
+    private static Stream<Arguments> testReadString() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000011, 0x71, 0x77, 0x65 }, "qwe"),
+                Arguments.of(new byte[] { (byte)0b10001000, (byte)0xd0, (byte)0xb0, (byte)0xd0, (byte)0xb1, (byte)0xd0, (byte)0xb2, (byte)0xd0, (byte)0xb3 }, "абвг")
+        );
+    }
+
+    // gaps that are mostly narrow, with wide exceptions and values in between blocks
+    @Test
+    public void testRoundTrip() throws Exception {
+        Random random = new Random(42);
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = random.nextInt(10) == 0 ? random.nextInt() : random.nextInt(16);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long written = 0;
+        try (PForDeltaEncodedOutputStream os = new PForDeltaEncodedOutputStream(bytes)) {
+            for (int i = 0; i < values.length; i++) {
+                written += os.write(values[i]);
+                if (i == 300) written += os.write(123456789L);
+                if (i == 700) written += os.write("term");
+            }
+            written += os.flush();
+        }
+        assertEquals(bytes.size(), written);
+        try (PForDeltaEncodedInputStream is = new PForDeltaEncodedInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(values[i], is.readInt());
+                if (i == 300) assertEquals(123456789L, is.readLong());
+                if (i == 700) assertEquals("term", is.readString());
+            }
+            assertFalse(is.eofReached());
+            is.readInt();
+            assertTrue(is.eofReached());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PForDeltaEncodedOutputStreamTest {
+
+    private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    private final PForDeltaEncodedOutputStream eos = new PForDeltaEncodedOutputStream(os);
+
+    @Test
+    public void testHoldsBackValues() {
+        assertEquals(0, eos.write(3));
+        assertEquals(0, eos.write(5));
+        assertEquals(0, os.size());
+        assertEquals(4, eos.flush());
+        assertArrayEquals(new byte[] { 2, 3, 0, 0b00101011 }, os.toByteArray());
+        assertEquals(0, eos.flush());
+    }
+
+    @Test
+    public void testWritesFullBlock() {
+        int written = 0;
+        for (int i = 0; i < PForDeltaEncodedOutputStream.BLOCK_SIZE - 1; i++)
+            written += eos.write(1);
+        assertEquals(0, written);
+        assertEquals(3 + 16, eos.write(1));
+        assertEquals(3 + 16, os.size());
+    }
+
+    // one wide value is cheaper as an exception than widening the whole block
+    @Test
+    public void testPatchesExceptions() {
+        for (int i = 0; i < 7; i++)
+            eos.write(1);
+        eos.write(1000);
+        eos.flush();
+        assertArrayEquals(new byte[] { 8, 1, 1, 0b01111111, 7, 0b00000011, (byte)0b11110100 }, os.toByteArray());
+    }
+
+    @Test
+    public void testEndsBlockBeforeLong() {
+        eos.write(1);
+        assertEquals(4 + 1, eos.write(23L));
+        assertArrayEquals(new byte[] { 1, 1, 0, 0b00000001, (byte)0b10010111 }, os.toByteArray());
+    }
+}
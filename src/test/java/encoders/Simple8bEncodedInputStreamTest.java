@@ -0,0 +1,77 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Simple8bEncodedInputStreamTest extends BaseEncodedInputStreamTest {
+
+    public Simple8bEncodedInputStreamTest() {
+        super(Simple8bEncodedInputStream::new);
+    }
+
+    private static Stream<Arguments> testReadInt() {
+        return Stream.of(
+                Arguments.of(new byte[] { 0, 0, 0, 0, 0, 0, 0, (byte)0xF0 }, 0),
+                Arguments.of(new byte[] { 1, 0, 0, 0, 0, 0, 0, (byte)0xF0 }, 1),
+                Arguments.of(new byte[] { 23, 0, 0, 0, 0, 0, 0, (byte)0xF0 }, 23),
+                Arguments.of(new byte[] { 0x7D, 0x0D, 0, 0, 0, 0, 0, (byte)0xF0 }, 3453),
+                Arguments.of(new byte[] { 0x0E, (byte)0xE9, 0x23, 0, 0, 0, 0, (byte)0xF0 }, 2353422),
+                Arguments.of(new byte[] { 0, 0, 0, 0, 0, 0, 0, 0x10 }, 1),
+                Arguments.of(new byte[] { 0, 0, 0, 0, 0, 0, 0, 0 }, 1)
+        );
+    }
+
+    private static Stream<Arguments> testReadLong() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000000 }, 0),
+                Arguments.of(new byte[] { (byte)0b10010111 }, 23),
+                Arguments.of(new byte[] { 0b00011011, 0b01111111, 0b01001110, 0b01110011, 0b01010110, 0b01011011, (byte)0b10111001 }, 123132123131321L)
+        );
+    }
+
+    private static Stream<Arguments> testReadString() {
+        return Stream.of(
+                Arguments.of(new byte[] { (byte)0b10000011, 0x71, 0x77, 0x65 }, "qwe"),
+                Arguments.of(new byte[] { (byte)0b10001000, (byte)0xd0, (byte)0xb0, (byte)0xd0, (byte)0xb1, (byte)0xd0, (byte)0xb2, (byte)0xd0, (byte)0xb3 }, "абвг")
+        );
+    }
+
+    // term frequencies that are mostly ones, with wide values and values in between blocks
+    @Test
+    public void testRoundTrip() throws Exception {
+        Random random = new Random(42);
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i < 400 ? (random.nextInt(8) == 0 ? 1 + random.nextInt(3) : 1) : random.nextInt(10) == 0 ? random.nextInt() : random.nextInt(100);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long written = 0;
+        try (Simple8bEncodedOutputStream os = new Simple8bEncodedOutputStream(bytes)) {
+            for (int i = 0; i < values.length; i++) {
+                written += os.write(values[i]);
+                if (i == 300) written += os.write(123456789L);
+                if (i == 700) written += os.write("term");
+            }
+            written += os.flush();
+        }
+        assertEquals(bytes.size(), written);
+        try (Simple8bEncodedInputStream is = new Simple8bEncodedInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(values[i], is.readInt());
+                if (i == 300) assertEquals(123456789L, is.readLong());
+                if (i == 700) assertEquals("term", is.readString());
+            }
+            assertFalse(is.eofReached());
+            is.readInt();
+            assertTrue(is.eofReached());
+        }
+    }
+}
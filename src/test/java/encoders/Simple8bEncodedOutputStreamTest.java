@@ -0,0 +1,61 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class Simple8bEncodedOutputStreamTest {
+
+    private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    private final Simple8bEncodedOutputStream eos = new Simple8bEncodedOutputStream(os);
+
+    // the three values left in the block share a word of 20-bit values
+    @Test
+    public void testHoldsBackValues() {
+        assertEquals(0, eos.write(3));
+        assertEquals(0, eos.write(5));
+        assertEquals(0, eos.write(0));
+        assertEquals(0, os.size());
+        assertEquals(8, eos.flush());
+        assertArrayEquals(new byte[] { 3, 0, 0x50, 0, 0, 0, 0, (byte)0xD0 }, os.toByteArray());
+        assertEquals(0, eos.flush());
+    }
+
+    @Test
+    public void testWritesFullBlockOfOnes() {
+        int written = 0;
+        for (int i = 0; i < Simple8bEncodedOutputStream.BLOCK_SIZE - 1; i++)
+            written += eos.write(1);
+        assertEquals(0, written);
+        assertEquals(Long.BYTES, eos.write(1));
+        assertArrayEquals(new byte[] { 0, 0, 0, 0, 0, 0, 0, 0 }, os.toByteArray());
+    }
+
+    // a run of 120 ones and the 8 ones left at 7 bits
+    @Test
+    public void testWritesShorterRunOfOnes() {
+        for (int i = 0; i < 128; i++)
+            eos.write(1);
+        assertEquals(2 * Long.BYTES, eos.flush());
+        assertArrayEquals(new byte[] {
+                0, 0, 0, 0, 0, 0, 0, 0x10,
+                (byte)0x81, 0x40, 0x20, 0x10, 0x08, 0x04, 0x02, (byte)0x80 }, os.toByteArray());
+    }
+
+    @Test
+    public void testWritesUnsignedInt() {
+        eos.write(-1);
+        eos.flush();
+        assertArrayEquals(new byte[] { -1, -1, -1, -1, 0, 0, 0, (byte)0xF0 }, os.toByteArray());
+    }
+
+    @Test
+    public void testEndsBlockBeforeLong() {
+        eos.write(1);
+        assertEquals(8 + 1, eos.write(23L));
+        assertArrayEquals(new byte[] { 1, 0, 0, 0, 0, 0, 0, (byte)0xF0, (byte)0b10010111 }, os.toByteArray());
+    }
+}
@@ -0,0 +1,80 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+import structure.document.disk.TermDictionary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VocabularyFrontDecoderTest {
+
+    private static final int TERMS_PER_BLOCK = 3;
+    private static final List<String> TERMS = List.of(
+            "ape", "apple", "apples", "hell", "hello", "helsing", "zebra", "�", "a😀", "a😁", "a😂", "яблоко"
+    ).stream().sorted(TermDictionary::compare).toList();
+    private static final List<String> QUERIES = List.of(
+            "", "a", "ap", "apple", "applesauce", "hel", "hello", "zzz", "", "a😀", "a😂", "я"
+    );
+
+    private final byte[] vocabularyString;
+    private final int[] blockPositions;
+
+    public VocabularyFrontDecoderTest() {
+        ByteArrayOutputStream string = new ByteArrayOutputStream();
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        try (VocabularyFrontEncoder encoder = new VocabularyFrontEncoder(new VBEncodedOutputStream(string), new VBEncodedOutputStream(table), TERMS_PER_BLOCK)) {
+            for (String term : TERMS)
+                encoder.write(term, 1, 0);
+        }
+        vocabularyString = string.toByteArray();
+        EncodedInputStream is = new VBEncodedInputStream(new ByteArrayInputStream(table.toByteArray()));
+        blockPositions = new int[(TERMS.size() + TERMS_PER_BLOCK - 1) / TERMS_PER_BLOCK];
+        for (int block = 0; block < blockPositions.length; block++) {
+            blockPositions[block] = is.readInt();
+            for (int i = block * TERMS_PER_BLOCK; i < Math.min(TERMS.size(), (block + 1) * TERMS_PER_BLOCK); i++) {
+                is.readInt();
+                is.readLong();
+            }
+        }
+    }
+
+    // the order of the indexers is the order of the UTF-8 bytes that lookups compare
+    @Test
+    public void testOrderIsUtf8ByteOrder() {
+        for (String left : QUERIES) {
+            for (String right : TERMS)
+                assertEquals(Integer.signum(Arrays.compareUnsigned(left.getBytes(StandardCharsets.UTF_8), right.getBytes(StandardCharsets.UTF_8))),
+                        Integer.signum(TermDictionary.compare(left, right)));
+        }
+    }
+
+    @Test
+    public void testTermsRead() {
+        VocabularyDecoder decoder = new VocabularyFrontDecoder(vocabularyString, VBEncodedInputStream::new);
+        for (int block = 0; block < blockPositions.length; block++) {
+            decoder.seek(blockPositions[block]);
+            byte[] prefix = decoder.readPrefix();
+            for (int i = block * TERMS_PER_BLOCK; i < Math.min(TERMS.size(), (block + 1) * TERMS_PER_BLOCK); i++)
+                assertEquals(TERMS.get(i), decoder.readTerm(prefix));
+        }
+    }
+
+    @Test
+    public void testTermsComparedInPlace() {
+        VocabularyDecoder decoder = new VocabularyFrontDecoder(vocabularyString, VBEncodedInputStream::new);
+        for (String query : QUERIES) {
+            byte[] bytes = query.getBytes(StandardCharsets.UTF_8);
+            for (int block = 0; block < blockPositions.length; block++) {
+                decoder.seek(blockPositions[block]);
+                decoder.skipPrefix();
+                for (int i = block * TERMS_PER_BLOCK; i < Math.min(TERMS.size(), (block + 1) * TERMS_PER_BLOCK); i++)
+                    assertEquals(Integer.signum(TermDictionary.compare(query, TERMS.get(i))), Integer.signum(decoder.compareTerm(bytes)));
+            }
+        }
+    }
+}
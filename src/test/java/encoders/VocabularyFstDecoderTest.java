@@ -0,0 +1,88 @@
+package encoders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import structure.document.disk.TermDictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VocabularyFstDecoderTest {
+
+    private static final List<String> TERMS = Stream.of(
+            "", "ape", "apple", "applied", "apply", "hell", "hello", "helsing", "jelly", "jello", "zebra", "a😀", "a😁", "яблоко"
+    ).sorted(TermDictionary::compare).toList();
+
+    private final byte[] fst;
+
+    public VocabularyFstDecoderTest() {
+        fst = encode(TERMS);
+    }
+
+    private static byte[] encode(List<String> terms) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (VocabularyFstEncoder encoder = new VocabularyFstEncoder(os, new VBEncodedOutputStream(new ByteArrayOutputStream()), 4)) {
+            for (String term : terms)
+                encoder.write(term, 1, 0);
+        }
+        return os.toByteArray();
+    }
+
+    @Test
+    public void testLookup() {
+        VocabularyFstDecoder decoder = new VocabularyFstDecoder(ByteBuffer.wrap(fst));
+        for (int i = 0; i < TERMS.size(); i++)
+            assertEquals(i, decoder.lookup(TERMS.get(i).getBytes(StandardCharsets.UTF_8)));
+        for (String absent : List.of("a", "apples", "hel", "helloo", "jell", "zebras", "a😂", "я"))
+            assertEquals(-1, decoder.lookup(absent.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testTerms(String prefix) {
+        VocabularyFstDecoder.Terms terms = new VocabularyFstDecoder(ByteBuffer.wrap(fst)).terms(prefix.getBytes(StandardCharsets.UTF_8));
+        List<String> actual = new ArrayList<>();
+        while (terms.next()) {
+            assertEquals(TERMS.indexOf(terms.term()), terms.ordinal());
+            actual.add(terms.term());
+        }
+        assertEquals(TERMS.stream().filter(term -> term.startsWith(prefix)).toList(), actual);
+    }
+
+    private static Stream<Arguments> testTerms() {
+        return Stream.of(
+                Arguments.of(""),
+                Arguments.of("a"),
+                Arguments.of("appl"),
+                Arguments.of("hello"),
+                Arguments.of("jel"),
+                Arguments.of("я"),
+                Arguments.of("x")
+        );
+    }
+
+    // the suffixes the terms share are stored once
+    @Test
+    public void testSuffixesShared() {
+        byte[] shared = encode(List.of("jumping", "running", "walking"));
+        byte[] distinct = encode(List.of("jumpixyz", "runnipqr", "walkiuvw"));
+        assertTrue(shared.length < distinct.length);
+    }
+
+    @Test
+    public void testUnorderedTermsRejected() {
+        VocabularyFstEncoder encoder = new VocabularyFstEncoder(new ByteArrayOutputStream(), new VBEncodedOutputStream(new ByteArrayOutputStream()), 4);
+        encoder.write("b", 1, 0);
+        assertThrows(IllegalArgumentException.class, () -> encoder.write("a", 1, 0));
+    }
+}
@@ -17,6 +17,7 @@ import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -56,7 +57,11 @@ public class BiWordIndexQueryExecutorTest extends BaseQueryExecutorTest<BiWordIn
             return result;
         });
         when(index.getTokenizer()).thenReturn(tokenizer);
-        when(index.getProcessedDocument(anyInt())).thenAnswer(inv -> documents[(int)inv.getArgument(0)]);
+        when(index.filterPhrase(anyList(), anyList())).thenAnswer(inv -> {
+            List<Integer> ids = inv.getArgument(0);
+            List<String> terms = inv.getArgument(1);
+            return ids.stream().filter(id -> documents[id].contains(String.join(" ", terms))).toList();
+        });
         when(index.getSeparator()).thenReturn(" ");
         return index;
     }
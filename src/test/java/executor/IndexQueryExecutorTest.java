@@ -7,6 +7,8 @@ import tokenizer.Tokenizer;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -33,6 +35,7 @@ public class IndexQueryExecutorTest extends BaseQueryExecutorTest<IndexQueryExec
         when(index.getDocumentIds("i")).thenReturn(List.of(0));
         when(index.getDocumentIds("j")).thenReturn(List.of(2));
         when(index.getDocumentIds("invalid")).thenReturn(List.of());
+        when(index.getDocumentIds(anyString(), anyList())).thenCallRealMethod();
         when(index.getAllDocumentIds()).thenReturn(List.of(0, 1, 2, 3, 4));
         when(index.getDocumentFrequency("a")).thenReturn(3);
         when(index.getDocumentFrequency("b")).thenReturn(2);
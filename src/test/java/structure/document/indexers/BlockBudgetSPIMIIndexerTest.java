@@ -0,0 +1,143 @@
+package structure.document.indexers;
+
+import document.Document;
+import org.junit.jupiter.api.Test;
+import structure.document.disk.DefaultOutBlock;
+import structure.document.disk.DefaultPackedOutBlock;
+import structure.document.disk.IndexingListener;
+import structure.document.disk.OutBlock;
+import structure.document.disk.PositionalOutBlock;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TfAwareOutBlock;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static structure.document.disk.Utils.*;
+import static utils.MocksFactory.of;
+
+public class BlockBudgetSPIMIIndexerTest extends BaseDefaultSPIMIIndexerTest {
+
+    private final static Path budgetDirectory = Path.of("src/test/resources/block-budget-indexer");
+    private final static int TERM_INFO_SIZE = objectSize(Integer.BYTES + REFERENCE_SIZE);
+    private final static int POSTING_BUFFER_SIZE = objectSize(2 * Integer.BYTES + REFERENCE_SIZE);
+    private final static long PACKED_TABLE_SIZE = 2 * arraySize(64, Integer.BYTES);
+
+    public BlockBudgetSPIMIIndexerTest() {
+        super(SPIMIIndexer.builder(directory.toString()).blockMemoryBudget(1).build());
+    }
+
+    @Test
+    public void testDefaultOutBlockSize() {
+        OutBlock block = new DefaultOutBlock(1);
+        assertEquals(0, block.size());
+        block.add(1000, 500);
+        long expected = HASH_MAP_NODE_SIZE + boxedIntegerSize(1000) + TERM_INFO_SIZE + ARRAY_LIST_SIZE
+                + boxedIntegerSize(500) + arraySize(ARRAY_LIST_INITIAL_CAPACITY, REFERENCE_SIZE);
+        assertEquals(expected + hashMapTableSize(1), block.size());
+        block.add(1000, 500);
+        assertEquals(expected + hashMapTableSize(1), block.size());
+        // the eleventh id grows the list by half
+        for (int id = 501; id < 511; id++) {
+            block.add(1000, id);
+            expected += boxedIntegerSize(id);
+        }
+        expected += arraySize(15, REFERENCE_SIZE) - arraySize(ARRAY_LIST_INITIAL_CAPACITY, REFERENCE_SIZE);
+        assertEquals(expected + hashMapTableSize(1), block.size());
+        // cached integers are not counted
+        block.add(5, 7);
+        expected += HASH_MAP_NODE_SIZE + TERM_INFO_SIZE + ARRAY_LIST_SIZE + arraySize(ARRAY_LIST_INITIAL_CAPACITY, REFERENCE_SIZE);
+        assertEquals(expected + hashMapTableSize(2), block.size());
+    }
+
+    @Test
+    public void testTfAwareOutBlockSize() {
+        OutBlock block = new TfAwareOutBlock(1);
+        assertEquals(0, block.size());
+        block.add(1000, 500);
+        long documentInfoSize = objectSize(2 * Integer.BYTES);
+        long expected = HASH_MAP_NODE_SIZE + boxedIntegerSize(1000) + TERM_INFO_SIZE + ARRAY_LIST_SIZE
+                + documentInfoSize + arraySize(ARRAY_LIST_INITIAL_CAPACITY, REFERENCE_SIZE);
+        assertEquals(expected + hashMapTableSize(1), block.size());
+        // a repeated id only counts its frequency up
+        block.add(1000, 500);
+        assertEquals(expected + hashMapTableSize(1), block.size());
+        block.add(1000, 501);
+        assertEquals(expected + documentInfoSize + hashMapTableSize(1), block.size());
+    }
+
+    @Test
+    public void testPackedOutBlockSize() {
+        OutBlock block = new DefaultPackedOutBlock(1);
+        assertEquals(PACKED_TABLE_SIZE, block.size());
+        block.add(1000, 500);
+        long expected = PACKED_TABLE_SIZE + POSTING_BUFFER_SIZE + arraySize(4, Integer.BYTES);
+        assertEquals(expected, block.size());
+        block.add(1000, 500);
+        block.add(1000, 501);
+        assertEquals(expected, block.size());
+        // the third posting doubles the ids and frequencies
+        block.add(1000, 502);
+        expected += arraySize(8, Integer.BYTES) - arraySize(4, Integer.BYTES);
+        assertEquals(expected, block.size());
+        // the table doubles once it is half full
+        OutBlock terms = new DefaultPackedOutBlock(1);
+        for (int termId = 0; termId < 33; termId++)
+            terms.add(termId, 0);
+        assertEquals(2 * arraySize(128, Integer.BYTES) + 33 * (POSTING_BUFFER_SIZE + arraySize(4, Integer.BYTES)), terms.size());
+    }
+
+    @Test
+    public void testPositionalOutBlockSize() {
+        OutBlock block = new PositionalOutBlock(1);
+        assertEquals(PACKED_TABLE_SIZE, block.size());
+        block.add(1000, 500, 0);
+        long expected = PACKED_TABLE_SIZE + TERM_INFO_SIZE + ARRAY_LIST_SIZE + arraySize(ARRAY_LIST_INITIAL_CAPACITY, REFERENCE_SIZE)
+                + POSTING_BUFFER_SIZE + arraySize(2, Integer.BYTES);
+        assertEquals(expected, block.size());
+        block.add(1000, 500, 3);
+        assertEquals(expected, block.size());
+        // the third position doubles the positions
+        block.add(1000, 500, 5);
+        expected += arraySize(4, Integer.BYTES) - arraySize(2, Integer.BYTES);
+        assertEquals(expected, block.size());
+        block.add(1000, 501, 0);
+        expected += POSTING_BUFFER_SIZE + arraySize(2, Integer.BYTES);
+        assertEquals(expected, block.size());
+    }
+
+    // identical documents on one inverter thread, so that the block reaches the budget after the same document every time
+    @Test
+    public void testFlushesOnBudget() {
+        String body = "ape apple death";
+        int termsCount = new HashSet<>(new DefaultTokenizer().tokenize(body)).size();
+        List<Document> identical = IntStream.range(0, 12).mapToObj(i -> of("d" + i, body)).toList();
+        long twoDocuments = PACKED_TABLE_SIZE + termsCount * (POSTING_BUFFER_SIZE + arraySize(4, Integer.BYTES));
+        long threeDocuments = PACKED_TABLE_SIZE + termsCount * (POSTING_BUFFER_SIZE + arraySize(8, Integer.BYTES));
+        long fiveDocuments = PACKED_TABLE_SIZE + termsCount * (POSTING_BUFFER_SIZE + arraySize(16, Integer.BYTES));
+        assertEquals(List.of(threeDocuments, threeDocuments, threeDocuments, threeDocuments), flushedSizes(identical, threeDocuments));
+        assertEquals(List.of(fiveDocuments, fiveDocuments, twoDocuments), flushedSizes(identical, threeDocuments + 1));
+    }
+
+    private static List<Long> flushedSizes(List<Document> documents, long blockMemoryBudget) {
+        List<Long> sizes = new CopyOnWriteArrayList<>();
+        SPIMIIndexer.builder(budgetDirectory)
+                .outBlockFactory(DefaultPackedOutBlock::new)
+                .inverterThreadsCount(1)
+                .blockMemoryBudget(blockMemoryBudget)
+                .listener(new IndexingListener() {
+                    @Override
+                    public void blockFlushed(int blockId, long memorySize, long fileSize, long nanos) {
+                        sizes.add(memorySize);
+                    }
+                })
+                .build()
+                .index(documents, new DefaultTokenizer());
+        return sizes;
+    }
+}
@@ -0,0 +1,45 @@
+package structure.document.indexers;
+
+import encoders.VBEncodedOutputStream;
+import org.junit.jupiter.api.Test;
+import structure.document.disk.DefaultOutBlock;
+import structure.document.disk.DefaultPackedOutBlock;
+
+import structure.document.disk.OutBlock;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TermDictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class DefaultPackedSPIMIIndexerTest extends BaseDefaultSPIMIIndexerTest {
+
+    public DefaultPackedSPIMIIndexerTest() {
+        super(SPIMIIndexer.builder(directory.toString()).outBlockFactory(DefaultPackedOutBlock::new).build());
+    }
+
+    // the packed block writes the run of the map based block, terms sorted by code points included
+    @Test
+    public void testFlushMatchesDefaultOutBlock() {
+        TermDictionary dictionary = new TermDictionary();
+        OutBlock packed = new DefaultPackedOutBlock(2);
+        OutBlock expected = new DefaultOutBlock(2);
+        Random random = new Random(42);
+        for (int id = 0; id < 2000; id++) {
+            for (int i = random.nextInt(5); i > 0; i--) {
+                int termId = dictionary.id("t" + random.nextInt(300) + (random.nextInt(10) == 0 ? "😀" : "�"));
+                packed.add(termId, id);
+                expected.add(termId, id);
+            }
+        }
+        assertArrayEquals(flush(expected, dictionary), flush(packed, dictionary));
+    }
+
+    private static byte[] flush(OutBlock block, TermDictionary dictionary) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        block.flush(new VBEncodedOutputStream(bytes), dictionary);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,85 @@
+package structure.document.indexers;
+
+import document.Document;
+import org.junit.jupiter.api.Test;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TfAwareInBlock;
+import structure.document.disk.TfAwarePackedOutBlock;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static utils.MocksFactory.of;
+
+public class LoaderThreadsSPIMIIndexerTest extends BaseTfAwareSPIMIIndexerTest {
+
+    private final static Path loadersDirectory = Path.of("src/test/resources/loader-threads-indexer");
+
+    public LoaderThreadsSPIMIIndexerTest() {
+        super(SPIMIIndexer.builder(directory.toString()).inBlockFactory(TfAwareInBlock::new).outBlockFactory(TfAwarePackedOutBlock::new)
+                .loaderThreadsCount(3).build());
+    }
+
+    @Test
+    public void testLoadsOnVirtualThreads() {
+        Set<Thread> loaders = ConcurrentHashMap.newKeySet();
+        List<Document> loaded = IntStream.range(0, 50)
+                .mapToObj(i -> (Document) new Document() {
+                    @Override
+                    public String getName() {
+                        return "d" + i;
+                    }
+
+                    @Override
+                    public String getBody() {
+                        return "a b";
+                    }
+
+                    @Override
+                    public List<String> getZones() {
+                        loaders.add(Thread.currentThread());
+                        return List.of(getBody());
+                    }
+
+                    @Override
+                    public long getSize() {
+                        return 0;
+                    }
+                })
+                .toList();
+        SPIMIIndexer.builder(loadersDirectory).loaderThreadsCount(3).build().index(loaded, new DefaultTokenizer());
+        assertTrue(loaders.size() <= 3);
+        for (Thread loader : loaders) {
+            assertTrue(loader.isVirtual());
+            assertTrue(loader.getName().startsWith("document-loader-"));
+        }
+    }
+
+    // many more documents than the queue holds, so that the loaders would block once the only inverter thread stops taking them
+    @Test
+    public void testInverterFailureEndsBuild() {
+        List<Document> failing = IntStream.range(0, 500)
+                .mapToObj(i -> of("d" + i, i == 7 ? "boom" : "a b"))
+                .toList();
+        DefaultTokenizer tokenizer = new DefaultTokenizer() {
+            @Override
+            public List<String> tokenize(String string) {
+                if (string.equals("boom")) throw new IllegalArgumentException("Cannot tokenize " + string);
+                return super.tokenize(string);
+            }
+        };
+        SPIMIIndexer indexer = SPIMIIndexer.builder(loadersDirectory).inverterThreadsCount(1).loaderThreadsCount(3).build();
+        IllegalArgumentException e = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> assertThrows(IllegalArgumentException.class, () -> indexer.index(failing, tokenizer)));
+        assertEquals("Cannot tokenize boom", e.getMessage());
+    }
+}
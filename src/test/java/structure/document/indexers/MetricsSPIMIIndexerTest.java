@@ -0,0 +1,41 @@
+package structure.document.indexers;
+
+import org.junit.jupiter.api.Test;
+import structure.document.disk.IndexingListener;
+import structure.document.disk.IndexingMetrics;
+import structure.document.disk.SPIMIIndexer;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsSPIMIIndexerTest extends BaseDefaultSPIMIIndexerTest {
+
+    // every test instance indexes the documents again, so the metrics are replaced with the indexer
+    private static IndexingMetrics metrics;
+
+    public MetricsSPIMIIndexerTest() {
+        super(createIndexer());
+    }
+
+    private static SPIMIIndexer createIndexer() {
+        metrics = new IndexingMetrics();
+        return SPIMIIndexer.builder(directory.toString()).blockMemoryBudget(1).listener(metrics).build();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        long tokens = documents.stream().mapToLong(document -> new DefaultTokenizer().tokenize(document.getBody()).size()).sum();
+        assertEquals(documents.size(), metrics.getDocuments());
+        assertEquals(tokens, metrics.getTokens());
+        assertEquals(documents.size(), metrics.getFlushes());
+        assertEquals(13, metrics.getMergedTerms());
+        assertEquals(Files.size(directory.resolve(SPIMIIndexer.POSTINGS_FILE_NAME)), metrics.getMergedBytes());
+        for (IndexingListener.Phase phase : IndexingListener.Phase.values()) {
+            assertTrue(metrics.getPhaseNanos(phase) > 0);
+            assertTrue(metrics.getPeakHeap(phase) > 0);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package structure.document.indexers;
+
+import encoders.NotEncodedInputStream;
+import encoders.NotEncodedOutputStream;
+import encoders.VBEncodedOutputStream;
+import org.junit.jupiter.api.Test;
+import structure.document.disk.DefaultOutBlock;
+import structure.document.disk.IndexingListener;
+import structure.document.disk.OutBlock;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TermDictionary;
+import tokenizer.DefaultTokenizer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NotEncodedRunsSPIMIIndexerTest extends BaseDefaultSPIMIIndexerTest {
+
+    // every test instance indexes the documents again, so the size is replaced with the indexer
+    private static AtomicLong notEncodedRunsSize;
+
+    public NotEncodedRunsSPIMIIndexerTest() {
+        super(createIndexer());
+    }
+
+    private static SPIMIIndexer createIndexer() {
+        notEncodedRunsSize = new AtomicLong();
+        return SPIMIIndexer.builder(directory.toString()).blockMemoryBudget(1)
+                .runOutputStreamFactory(NotEncodedOutputStream::new).runInputStreamFactory(NotEncodedInputStream::new)
+                .listener(runsSize(notEncodedRunsSize))
+                .build();
+    }
+
+    private static IndexingListener runsSize(AtomicLong size) {
+        return new IndexingListener() {
+            @Override
+            public void blockFlushed(int blockId, long memorySize, long fileSize, long nanos) {
+                size.addAndGet(fileSize);
+            }
+        };
+    }
+
+    // the default run codec writes the same blocks in fewer bytes, not encoded runs take 4 bytes for every int
+    @Test
+    public void testDefaultRunsAreCompressed() {
+        AtomicLong encodedRunsSize = new AtomicLong();
+        SPIMIIndexer.builder(Path.of("src/test/resources/encoded-runs-indexer")).blockMemoryBudget(1)
+                .listener(runsSize(encodedRunsSize))
+                .build()
+                .index(documents, new DefaultTokenizer());
+        assertEquals(0, notEncodedRunsSize.get() % Integer.BYTES);
+        assertTrue(encodedRunsSize.get() < notEncodedRunsSize.get());
+    }
+
+    // the term id, the document frequency and the number of postings are followed by the gaps between the ids
+    @Test
+    public void testRunsHoldIdGaps() {
+        TermDictionary dictionary = new TermDictionary();
+        OutBlock block = new DefaultOutBlock(1);
+        for (int id = 1000; id < 1010; id++)
+            block.add(dictionary.id("a"), id);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        block.flush(new VBEncodedOutputStream(bytes), dictionary);
+        assertArrayEquals(new byte[] {
+                (byte)0x80, (byte)0x8A, (byte)0x8A, 0x07, (byte)0xE8,
+                (byte)0x81, (byte)0x81, (byte)0x81, (byte)0x81, (byte)0x81, (byte)0x81, (byte)0x81, (byte)0x81, (byte)0x81
+        }, bytes.toByteArray());
+    }
+}
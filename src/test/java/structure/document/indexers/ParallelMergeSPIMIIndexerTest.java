@@ -0,0 +1,133 @@
+package structure.document.indexers;
+
+import document.Document;
+import encoders.EliasGammaEncodedInputStream;
+import encoders.EliasGammaEncodedOutputStream;
+import encoders.EncodedInputStream;
+import encoders.EncodedOutputStream;
+import encoders.PForDeltaEncodedInputStream;
+import encoders.PForDeltaEncodedOutputStream;
+import encoders.Simple8bEncodedInputStream;
+import encoders.Simple8bEncodedOutputStream;
+import org.junit.jupiter.api.Test;
+import structure.document.disk.Indexer;
+import structure.document.disk.IndexingListener;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TfAwareInBlock;
+import structure.document.disk.TfAwarePackedOutBlock;
+import tokenizer.DefaultTokenizer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static utils.MocksFactory.of;
+
+public class ParallelMergeSPIMIIndexerTest extends BaseTfAwareSPIMIIndexerTest {
+
+    // every test instance indexes the documents again, so the threads are replaced with the indexer
+    private static Set<Thread> mergingThreads;
+
+    public ParallelMergeSPIMIIndexerTest() {
+        super(createIndexer(directory, 4));
+    }
+
+    private static SPIMIIndexer createIndexer(Path directory, int mergeThreadsCount) {
+        mergingThreads = ConcurrentHashMap.newKeySet();
+        return SPIMIIndexer.builder(directory.toString())
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .blockMemoryBudget(1)
+                .mergeThreadsCount(mergeThreadsCount)
+                .listener(new IndexingListener() {
+                    @Override
+                    public void termMerged(long postingsBytes) {
+                        mergingThreads.add(Thread.currentThread());
+                    }
+                })
+                .build();
+    }
+
+    // the first terms of the five blocks split the vocabulary into a range for every merge thread
+    @Test
+    public void testMergesInRanges() {
+        assertEquals(4, mergingThreads.size());
+    }
+
+    @Test
+    public void testSameFilesAsSingleRange() throws Exception {
+        Path single = Path.of("src/test/resources/single-range-indexer");
+        Path parallel = Path.of("src/test/resources/parallel-range-indexer");
+        createIndexer(single, 1).index(corpus(), new DefaultTokenizer());
+        createIndexer(parallel, 4).index(corpus(), new DefaultTokenizer());
+        assertEquals(4, mergingThreads.size());
+        assertSameFiles(single, parallel);
+    }
+
+    // blocks of many terms, so that the ranges start at sampled offsets past the start of the run files
+    @Test
+    public void testBlockRunCodecs() throws Exception {
+        Path single = Path.of("src/test/resources/single-range-indexer");
+        createIndexer(single, 1).index(corpus(), new DefaultTokenizer());
+        assertSameFiles(single, mergeWithRunCodec(Path.of("src/test/resources/pfordelta-runs-indexer"),
+                PForDeltaEncodedOutputStream::new, PForDeltaEncodedInputStream::new));
+        assertSameFiles(single, mergeWithRunCodec(Path.of("src/test/resources/simple8b-runs-indexer"),
+                Simple8bEncodedOutputStream::new, Simple8bEncodedInputStream::new));
+    }
+
+    // padded bit codes cannot be read on from a sampled offset
+    @Test
+    public void testRejectsBitRunCodecs() {
+        assertThrows(IllegalStateException.class, () -> SPIMIIndexer.builder(Path.of("src/test/resources/gamma-runs-indexer"))
+                .runOutputStreamFactory(EliasGammaEncodedOutputStream::new)
+                .runInputStreamFactory(EliasGammaEncodedInputStream::new)
+                .build());
+    }
+
+    private static Path mergeWithRunCodec(Path directory, Function<OutputStream, EncodedOutputStream> runOutputStreamFactory,
+                                          Function<InputStream, EncodedInputStream> runInputStreamFactory) {
+        mergingThreads = ConcurrentHashMap.newKeySet();
+        SPIMIIndexer.builder(directory)
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .runOutputStreamFactory(runOutputStreamFactory)
+                .runInputStreamFactory(runInputStreamFactory)
+                .inverterThreadsCount(2)
+                .mergeThreadsCount(4)
+                .listener(new IndexingListener() {
+                    @Override
+                    public void termMerged(long postingsBytes) {
+                        mergingThreads.add(Thread.currentThread());
+                    }
+                })
+                .build()
+                .index(corpus(), new DefaultTokenizer());
+        assertEquals(4, mergingThreads.size());
+        return directory;
+    }
+
+    private static List<Document> corpus() {
+        Random random = new Random(42);
+        return IntStream.range(0, 300)
+                .mapToObj(i -> of("d" + i, IntStream.range(0, 20)
+                        .mapToObj(j -> "w" + random.nextInt(2000))
+                        .collect(Collectors.joining(" "))))
+                .toList();
+    }
+
+    private static void assertSameFiles(Path expected, Path actual) throws Exception {
+        for (String file : List.of(Indexer.POSTINGS_FILE_NAME, Indexer.VOCABULARY_STRING_FILE_NAME, Indexer.VOCABULARY_TABLE_FILE_NAME))
+            assertArrayEquals(Files.readAllBytes(expected.resolve(file)), Files.readAllBytes(actual.resolve(file)));
+    }
+}
@@ -0,0 +1,101 @@
+package structure.document.indexers;
+
+import org.junit.jupiter.api.Test;
+import structure.document.disk.Checkpoint;
+import structure.document.disk.IndexingListener;
+import structure.document.disk.IndexingMetrics;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TermDictionary;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResumableSPIMIIndexerTest extends BaseDefaultSPIMIIndexerTest {
+
+    private static IndexingMetrics metrics;
+
+    public ResumableSPIMIIndexerTest() {
+        super(createIndexer());
+    }
+
+    // the first build fails in the middle of the merge, the indexer under test resumes it
+    private static SPIMIIndexer createIndexer() {
+        SPIMIIndexer interrupted = builder().listener(new IndexingListener() {
+            private int terms;
+
+            @Override
+            public synchronized void termMerged(long postingsBytes) {
+                if (++terms == 3) throw new IllegalStateException("Interrupted");
+            }
+        }).build();
+        assertThrows(IllegalStateException.class, () -> interrupted.index(documents, new DefaultTokenizer()));
+        metrics = new IndexingMetrics();
+        return builder().listener(metrics).build();
+    }
+
+    private static SPIMIIndexer.Builder builder() {
+        return SPIMIIndexer.builder(directory.toString()).blockMemoryBudget(1).mergeThreadsCount(2).resumable(true);
+    }
+
+    // the range that was not interrupted has been recorded as finished and is not merged again
+    @Test
+    public void testFinishedWorkSkipped() {
+        assertEquals(0, metrics.getDocuments());
+        assertEquals(0, metrics.getFlushes());
+        assertTrue(metrics.getMergedTerms() < 13);
+    }
+
+    @Test
+    public void testTemporaryFilesDeleted() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.map(file -> file.getFileName().toString())
+                    .anyMatch(name -> name.startsWith("block-") || name.startsWith("merge-") || name.startsWith(Checkpoint.FILE_NAME)));
+        }
+    }
+
+    @Test
+    public void testStaleCheckpointDiscarded() throws Exception {
+        Files.writeString(directory.resolve(Checkpoint.FILE_NAME), "documents 1 1 0\nblock 0 0 0 \n");
+        Files.writeString(directory.resolve("block-0"), "");
+        indexer.index(documents, new DefaultTokenizer());
+        testPostings();
+        testTemporaryFilesDeleted();
+    }
+
+    // a checkpoint waits for the terms of ids handed out to other threads, blocked rather than spinning
+    @Test
+    public void testAwaitsTermsOnTheirWay() throws Exception {
+        TermDictionary dictionary = new TermDictionary();
+        CompletableFuture<String> term = new CompletableFuture<>();
+        Thread waiter = Thread.ofPlatform().start(() -> {
+            try {
+                term.complete(dictionary.awaitTerm(0));
+            } catch (Throwable e) {
+                term.completeExceptionally(e);
+            }
+        });
+        awaitWaiting(waiter);
+        dictionary.id("a");
+        assertEquals("a", term.get(10, TimeUnit.SECONDS));
+        Thread interrupted = Thread.ofPlatform().start(() -> assertThrows(InterruptedException.class, () -> dictionary.awaitTerm(1)));
+        awaitWaiting(interrupted);
+        interrupted.interrupt();
+        interrupted.join(10_000);
+        assertFalse(interrupted.isAlive());
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.isAlive() && thread.getState() != Thread.State.WAITING)
+            Thread.sleep(1);
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+}
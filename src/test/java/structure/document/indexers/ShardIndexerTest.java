@@ -0,0 +1,66 @@
+package structure.document.indexers;
+
+import document.Document;
+import document.TxtDocument;
+import encoders.VBEncodedInputStream;
+import encoders.VBEncodedOutputStream;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import structure.document.disk.*;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ShardIndexerTest {
+
+    private static final List<String> BODIES = List.of(
+            "ape, apple help! hello? -Helsing :cool: death",
+            "help?help death, suffering, agony. depth! agony, agony",
+            "ape - death - suffering - ape",
+            "death/depth hell/depth",
+            " are death suffering#are dog are (are)"
+    );
+    private static final String[] FILE_NAMES = {
+            Indexer.DOCUMENTS_MAP_FILE_NAME, Indexer.VOCABULARY_STRING_FILE_NAME, Indexer.VOCABULARY_TABLE_FILE_NAME, Indexer.POSTINGS_FILE_NAME
+    };
+
+    @TempDir
+    private Path directory;
+
+    // shards merged into one index are the index a single indexer builds of all documents
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testShardsMerged(boolean tfAware) throws Exception {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < BODIES.size(); i++) {
+            Path file = Files.writeString(directory.resolve(i + ".txt"), BODIES.get(i));
+            documents.add(new TxtDocument(file));
+        }
+        Path expected = directory.resolve("expected");
+        SPIMIIndexer.builder(expected)
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .outBlockFactory(tfAware ? TfAwarePackedOutBlock::new : DefaultPackedOutBlock::new)
+                .inBlockFactory(tfAware ? TfAwareInBlock::new : DefaultInBlock::new)
+                .build()
+                .index(documents, new DefaultTokenizer());
+        Path actual = directory.resolve("actual");
+        ShardIndexer.builder(actual)
+                .shardsCount(2)
+                .tfAware(tfAware)
+                .jvmOptions("-Xmx64m")
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .build()
+                .index(documents);
+        for (String fileName : FILE_NAMES)
+            assertArrayEquals(Files.readAllBytes(expected.resolve(fileName)), Files.readAllBytes(actual.resolve(fileName)));
+        assertFalse(Files.exists(actual.resolve(ShardIndexer.SHARD_DIRECTORY_PREFIX + 0)));
+    }
+}
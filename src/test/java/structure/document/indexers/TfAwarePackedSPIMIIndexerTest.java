@@ -0,0 +1,45 @@
+package structure.document.indexers;
+
+import encoders.VBEncodedOutputStream;
+import org.junit.jupiter.api.Test;
+import structure.document.disk.OutBlock;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TermDictionary;
+import structure.document.disk.TfAwareInBlock;
+import structure.document.disk.TfAwareOutBlock;
+import structure.document.disk.TfAwarePackedOutBlock;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class TfAwarePackedSPIMIIndexerTest extends BaseTfAwareSPIMIIndexerTest {
+
+    public TfAwarePackedSPIMIIndexerTest() {
+        super(SPIMIIndexer.builder(directory.toString()).inBlockFactory(TfAwareInBlock::new).outBlockFactory(TfAwarePackedOutBlock::new).build());
+    }
+
+    // the packed block writes the run of the map based block, terms sorted by code points included
+    @Test
+    public void testFlushMatchesTfAwareOutBlock() {
+        TermDictionary dictionary = new TermDictionary();
+        OutBlock packed = new TfAwarePackedOutBlock(2);
+        OutBlock expected = new TfAwareOutBlock(2);
+        Random random = new Random(42);
+        for (int id = 0; id < 2000; id++) {
+            for (int i = random.nextInt(5); i > 0; i--) {
+                int termId = dictionary.id("t" + random.nextInt(300) + (random.nextInt(10) == 0 ? "😀" : "�"));
+                packed.add(termId, id);
+                expected.add(termId, id);
+            }
+        }
+        assertArrayEquals(flush(expected, dictionary), flush(packed, dictionary));
+    }
+
+    private static byte[] flush(OutBlock block, TermDictionary dictionary) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        block.flush(new VBEncodedOutputStream(bytes), dictionary);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,81 @@
+package structure.document.indexes;
+
+import encoders.VBEncodedInputStream;
+import encoders.VBEncodedOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import structure.document.disk.BiWordOnDiskInvertedIndex;
+import structure.document.disk.BiWordOutBlock;
+import structure.document.disk.PositionalInBlock;
+import structure.document.disk.SPIMIIndexer;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BiWordOnDiskInvertedIndexTest extends BaseIndexTest<BiWordOnDiskInvertedIndex> {
+
+    private final static Path directory = Path.of("src/test/resources/biword-index");
+
+    static {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory.toString())
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .inBlockFactory(PositionalInBlock::new)
+                .outBlockFactory(BiWordOutBlock::new)
+                .blockMemoryBudget(1)
+                .build();
+        indexer.index(documents, new DefaultTokenizer());
+    }
+
+    public BiWordOnDiskInvertedIndexTest() {
+        super(BiWordOnDiskInvertedIndex.builder(directory)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .build());
+    }
+
+    @Override
+    @Test
+    public void testTermsCount() {
+        assertEquals(32, searchStructure.termsCount());
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testGetDocumentIdsByBiWord(String term, List<Integer> expected) {
+        assertEquals(expected, searchStructure.getDocumentIds(term));
+    }
+
+    public static Stream<Arguments> testGetDocumentIdsByBiWord() {
+        return Stream.of(
+                Arguments.of("a d", List.of(0)),
+                Arguments.of("f h", List.of(0, 2, 4)),
+                Arguments.of("c d", List.of(4)),
+                Arguments.of("h h", List.of(1)),
+                Arguments.of("a a", List.of()),
+                Arguments.of("a e g", List.of())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testFilterPhrase(List<String> terms, List<Integer> expected) {
+        assertEquals(expected, searchStructure.filterPhrase(List.of(0, 1, 2, 3, 4), terms));
+    }
+
+    public static Stream<Arguments> testFilterPhrase() {
+        return Stream.of(
+                Arguments.of(List.of("f", "h", "j"), List.of(2)),
+                Arguments.of(List.of("a", "d", "h"), List.of(0)),
+                Arguments.of(List.of("h", "a", "h"), List.of(1)),
+                Arguments.of(List.of("d", "f", "h", "i"), List.of(0)),
+                Arguments.of(List.of("a", "e", "h"), List.of()),
+                Arguments.of(List.of("f", "h", "a"), List.of())
+        );
+    }
+}
@@ -0,0 +1,155 @@
+package structure.document.indexes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import structure.document.TfAwareIndex;
+import structure.document.disk.LruPostingListCache;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TfAwareInBlock;
+import structure.document.disk.TfAwareOnDiskInvertedIndex;
+import structure.document.disk.TfAwarePackedOutBlock;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static structure.document.disk.Utils.*;
+import static utils.MocksFactory.ofT;
+
+public class CachedOnDiskInvertedIndexTest extends BaseIndexTest<TfAwareOnDiskInvertedIndex> {
+
+    private final static Path directory = Path.of("src/test/resources/cached-index");
+
+    static {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory.toString())
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .build();
+        indexer.index(documents.subList(0, 2), new DefaultTokenizer());
+        indexer.append(documents.subList(2, 5), new DefaultTokenizer());
+    }
+
+    public CachedOnDiskInvertedIndexTest() {
+        super(index(new LruPostingListCache(1 << 20)));
+    }
+
+    private static TfAwareOnDiskInvertedIndex index(LruPostingListCache cache) {
+        return TfAwareOnDiskInvertedIndex.builder(directory).postingListCache(cache).build();
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testGetEntries(String term, List<TfAwareIndex.Entry> expected) {
+        assertEquals(expected, searchStructure.getEntries(term));
+        assertEquals(expected, searchStructure.getEntries(term));
+    }
+
+    public static Stream<Arguments> testGetEntries() {
+        return Stream.of(
+                Arguments.of("a", List.of(ofT(0, 2), ofT(1, 2), ofT(2, 1))),
+                Arguments.of("c", List.of(ofT(4, 1))),
+                Arguments.of("h", List.of(ofT(0, 2), ofT(1, 3), ofT(2, 1), ofT(3, 1), ofT(4, 2))),
+                Arguments.of("invalid", List.of())
+        );
+    }
+
+    // a term looked up by its string and by its id shares one cached list, ids and entries are cached apart
+    @Test
+    public void testHits() {
+        LruPostingListCache cache = new LruPostingListCache(1 << 20);
+        try (TfAwareOnDiskInvertedIndex index = index(cache)) {
+            List<TfAwareIndex.Entry> entries = index.getEntries("h");
+            assertSame(entries, index.getEntries("h"));
+            assertSame(entries, index.getEntries(7));
+            index.getDocumentIds("h");
+            index.getDocumentIds("h");
+            index.getDocumentIds("invalid");
+            assertEquals(3, cache.getHits());
+            assertEquals(2, cache.getMisses());
+            assertEquals(0.6, cache.getHitRate());
+        }
+    }
+
+    @Test
+    public void testEvictedBySize() {
+        LruPostingListCache cache = new LruPostingListCache(200, 1);
+        try (TfAwareOnDiskInvertedIndex index = index(cache)) {
+            for (String term : List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j"))
+                index.getEntries(term);
+            assertTrue(cache.getEvictions() > 0);
+            assertTrue(cache.getBytes() <= 200);
+            index.getEntries("j");
+            assertEquals(1, cache.getHits());
+            index.getEntries("a");
+            assertEquals(1, cache.getHits());
+        }
+    }
+
+    // an unmodifiable view of an array list with an entry of two ints for every posting, the ids 0 to 4 are cached integers
+    @Test
+    public void testBytes() {
+        LruPostingListCache cache = new LruPostingListCache(1 << 20);
+        try (TfAwareOnDiskInvertedIndex index = index(cache)) {
+            long listSize = objectSize(2 * REFERENCE_SIZE) + ARRAY_LIST_SIZE + arraySize(5, REFERENCE_SIZE);
+            index.getEntries("h");
+            assertEquals(listSize + 5 * objectSize(2 * Integer.BYTES), cache.getBytes());
+            index.getDocumentIds("h");
+            assertEquals(2 * listSize + 5 * objectSize(2 * Integer.BYTES), cache.getBytes());
+        }
+    }
+
+    // every segment holds its share of the budget, so the lists of all segments together stay within it
+    @Test
+    public void testSegmentsShareBudget() {
+        LruPostingListCache cache = new LruPostingListCache(800, 4);
+        try (TfAwareOnDiskInvertedIndex index = index(cache)) {
+            for (int i = 0; i < 3; i++) {
+                for (String term : List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j")) {
+                    index.getEntries(term);
+                    index.getDocumentIds(term);
+                }
+            }
+            assertTrue(cache.getEvictions() > 0);
+            assertTrue(cache.getBytes() <= 800);
+        }
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        LruPostingListCache cache = new LruPostingListCache(1 << 20);
+        List<String> terms = List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+        try (TfAwareOnDiskInvertedIndex index = index(cache);
+             TfAwareOnDiskInvertedIndex uncached = TfAwareOnDiskInvertedIndex.builder(directory).build();
+             ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            Map<String, List<Integer>> expected = new HashMap<>();
+            for (String term : terms)
+                expected.put(term, uncached.getDocumentIds(term));
+            List<Future<?>> lookups = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                lookups.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        for (String term : terms)
+                            assertEquals(expected.get(term), index.getDocumentIds(term));
+                    }
+                }));
+            }
+            for (Future<?> lookup : lookups)
+                lookup.get();
+            assertEquals(8 * 100 * terms.size(), cache.getHits() + cache.getMisses());
+            assertTrue(cache.getMisses() >= terms.size());
+            assertEquals(0, cache.getEvictions());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package structure.document.indexes;
+
+import executor.IndexQueryExecutor;
+import expression.NotExpression;
+import expression.PhraseExpression;
+import org.junit.jupiter.api.Test;
+import structure.document.disk.DefaultOnDiskInvertedIndex;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.SegmentMerger;
+import structure.document.disk.Segments;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeletedDocumentsOnDiskInvertedIndexTest {
+
+    private final static Path directory = Path.of("src/test/resources/deleted-documents-index");
+
+    public DeletedDocumentsOnDiskInvertedIndexTest() {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory).build();
+        indexer.index(BaseSearchStructureTest.documents.subList(0, 2), new DefaultTokenizer());
+        indexer.append(BaseSearchStructureTest.documents.subList(2, 4), new DefaultTokenizer());
+        indexer.append(BaseSearchStructureTest.documents.subList(4, 5), new DefaultTokenizer());
+        try (DefaultOnDiskInvertedIndex index = DefaultOnDiskInvertedIndex.builder(directory).build()) {
+            index.delete(2);
+            index.delete(4);
+        }
+    }
+
+    @Test
+    public void testDeletedDocuments() {
+        try (DefaultOnDiskInvertedIndex index = DefaultOnDiskInvertedIndex.builder(directory).build()) {
+            assertTrue(index.hasDeletedDocuments());
+            assertTrue(index.isDeleted(2));
+            assertFalse(index.isDeleted(3));
+            assertEquals(List.of(0, 1, 3), index.getAllDocumentIds());
+            assertEquals(List.of(2, 3), index.getDocumentIds("b"));
+        }
+    }
+
+    @Test
+    public void testExecute() {
+        try (DefaultOnDiskInvertedIndex index = DefaultOnDiskInvertedIndex.builder(directory).build()) {
+            IndexQueryExecutor executor = new IndexQueryExecutor(index);
+            assertEquals(List.of("3"), executor.execute(new PhraseExpression("b")));
+            assertEquals(List.of("0", "1"), executor.execute(new PhraseExpression("a")));
+            assertEquals(List.of("3"), executor.execute(new NotExpression(new PhraseExpression("a"))));
+        }
+    }
+
+    @Test
+    public void testMergeDropsDeletedDocuments() {
+        try (SegmentMerger merger = SegmentMerger.builder(directory).mergeFactor(2).build()) {
+            merger.maybeMerge();
+        }
+        assertEquals(List.of(3, 1), Segments.read(directory).stream().map(Segments.Info::documentsCount).toList());
+        try (DefaultOnDiskInvertedIndex index = DefaultOnDiskInvertedIndex.builder(directory).build()) {
+            assertEquals(4, index.documentsCount());
+            assertEquals(List.of("0", "1", "3"), index.getAllDocumentIds().stream().map(index::getDocumentName).toList());
+            assertTrue(index.isDeleted(3));
+            assertEquals(List.of(2), index.getDocumentIds("b"));
+            assertEquals(List.of(0, 1), index.getDocumentIds("a"));
+            assertEquals(1, index.getDocumentFrequency("b"));
+            assertEquals(List.of(), index.getDocumentIds("j"));
+        }
+    }
+
+    // the first two segments are merged while the index is open, the last one stays
+    @Test
+    public void testDeleteThroughIndexOpenedBeforeMerge() {
+        try (DefaultOnDiskInvertedIndex index = DefaultOnDiskInvertedIndex.builder(directory).build()) {
+            try (SegmentMerger merger = SegmentMerger.builder(directory).mergeFactor(2).build()) {
+                merger.maybeMerge();
+            }
+            index.delete(4);
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> index.delete(1));
+            assertTrue(e.getMessage().contains("segment-0"));
+            assertFalse(index.isDeleted(1));
+        }
+        assertFalse(Files.exists(directory.resolve("segment-0")));
+        try (DefaultOnDiskInvertedIndex index = DefaultOnDiskInvertedIndex.builder(directory).build()) {
+            assertEquals(List.of("0", "1", "3"), index.getAllDocumentIds().stream().map(index::getDocumentName).toList());
+            assertTrue(index.isDeleted(3));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package structure.document.indexes;
+
+import encoders.EliasGammaEncodedInputStream;
+import encoders.EliasGammaEncodedOutputStream;
+import encoders.VBEncodedInputStream;
+import encoders.VBEncodedOutputStream;
+import structure.document.disk.PositionalInBlock;
+import structure.document.disk.PositionalOnDiskInvertedIndex;
+import structure.document.disk.PositionalOutBlock;
+import structure.document.disk.SPIMIIndexer;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+
+// gamma coded lists do not end on a byte, so every list is padded before the next one starts
+public class EliasGammaPositionalOnDiskInvertedIndexTest extends BasePositionalIndexTest<PositionalOnDiskInvertedIndex> {
+
+    private final static Path directory = Path.of("src/test/resources/gamma-positional-index");
+
+    static {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory.toString())
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .postingsOutputStreamFactory(EliasGammaEncodedOutputStream::new)
+                .inBlockFactory(PositionalInBlock::new)
+                .outBlockFactory(PositionalOutBlock::new)
+                .blockMemoryBudget(1)
+                .build();
+        indexer.index(documents, new DefaultTokenizer());
+    }
+
+    public EliasGammaPositionalOnDiskInvertedIndexTest() {
+        super(PositionalOnDiskInvertedIndex.builder(directory)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .postingsInputStreamFactory(EliasGammaEncodedInputStream::new)
+                .build());
+    }
+}
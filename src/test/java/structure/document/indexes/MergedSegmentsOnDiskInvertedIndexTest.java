@@ -0,0 +1,117 @@
+package structure.document.indexes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import structure.document.TfAwareIndex;
+import structure.document.disk.BiWordOutBlock;
+import structure.document.disk.PositionalInBlock;
+import structure.document.disk.PositionalOutBlock;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.SegmentMerger;
+import structure.document.disk.Segments;
+import structure.document.disk.TfAwareInBlock;
+import structure.document.disk.TfAwareOnDiskInvertedIndex;
+import structure.document.disk.TfAwarePackedOutBlock;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static utils.MocksFactory.ofT;
+
+public class MergedSegmentsOnDiskInvertedIndexTest extends BaseIndexTest<TfAwareOnDiskInvertedIndex> {
+
+    private final static Path directory = Path.of("src/test/resources/merged-segments-index");
+
+    static {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory.toString())
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .build();
+        indexer.index(documents.subList(0, 2), new DefaultTokenizer());
+        for (int i = 2; i < documents.size(); i++)
+            indexer.append(documents.subList(i, i + 1), new DefaultTokenizer());
+        try (SegmentMerger merger = SegmentMerger.builder(directory).inBlockFactory(TfAwareInBlock::new, 2).mergeFactor(2).build()) {
+            merger.maybeMerge();
+        }
+    }
+
+    public MergedSegmentsOnDiskInvertedIndexTest() {
+        super(TfAwareOnDiskInvertedIndex.builder(directory).build());
+    }
+
+    // lookups of many threads read the front-coded blocks with decoders of their own
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        List<String> terms = List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "invalid");
+        List<List<Integer>> expected = terms.stream().map(searchStructure::getDocumentIds).toList();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> lookups = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                lookups.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        for (int term = 0; term < terms.size(); term++)
+                            assertEquals(expected.get(term), searchStructure.getDocumentIds(terms.get(term)));
+                        assertEquals(terms.subList(0, 10), searchStructure.getTermsWithPrefix(""));
+                    }
+                }));
+            }
+            for (Future<?> lookup : lookups)
+                lookup.get();
+        }
+    }
+
+    @Test
+    public void testSegments() {
+        assertEquals(List.of(4, 1), Segments.read(directory).stream().map(Segments.Info::documentsCount).toList());
+    }
+
+    @Test
+    public void testRejectsPositionalSegments() {
+        try (SegmentMerger merger = SegmentMerger.builder(directory).inBlockFactory(PositionalInBlock::new, 2).build()) {
+            assertThrows(IllegalStateException.class, () -> SPIMIIndexer.builder(directory)
+                    .inBlockFactory(PositionalInBlock::new).outBlockFactory(PositionalOutBlock::new).segmentMerger(merger).build());
+            assertThrows(IllegalStateException.class, () -> SPIMIIndexer.builder(directory)
+                    .inBlockFactory(PositionalInBlock::new).outBlockFactory(BiWordOutBlock::new).segmentMerger(merger).build());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testGetEntries(String term, List<TfAwareIndex.Entry> expected) {
+        assertEquals(expected, searchStructure.getEntries(term));
+    }
+
+    public static Stream<Arguments> testGetEntries() {
+        return Stream.of(
+                Arguments.of("a", List.of(ofT(0, 2), ofT(1, 2), ofT(2, 1))),
+                Arguments.of("b", List.of(ofT(2, 1), ofT(3, 1))),
+                Arguments.of("f", List.of(ofT(0, 1), ofT(2, 1), ofT(4, 2))),
+                Arguments.of("h", List.of(ofT(0, 2), ofT(1, 3), ofT(2, 1), ofT(3, 1), ofT(4, 2))),
+                Arguments.of("invalid", List.of())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testGetTermsWithPrefix(String prefix, List<String> expected) {
+        assertEquals(expected, searchStructure.getTermsWithPrefix(prefix));
+    }
+
+    public static Stream<Arguments> testGetTermsWithPrefix() {
+        return Stream.of(
+                Arguments.of("", List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j")),
+                Arguments.of("h", List.of("h")),
+                Arguments.of("k", List.of())
+        );
+    }
+}
@@ -0,0 +1,73 @@
+package structure.document.indexes;
+
+import encoders.PForDeltaEncodedInputStream;
+import encoders.PForDeltaEncodedOutputStream;
+import encoders.VBEncodedInputStream;
+import encoders.VBEncodedOutputStream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import structure.document.TfAwareIndex;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.SegmentMerger;
+import structure.document.disk.TfAwareInBlock;
+import structure.document.disk.TfAwareOnDiskInvertedIndex;
+import structure.document.disk.TfAwarePackedOutBlock;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static utils.MocksFactory.ofT;
+
+public class PForDeltaMergedSegmentsOnDiskInvertedIndexTest extends BaseIndexTest<TfAwareOnDiskInvertedIndex> {
+
+    private final static Path directory = Path.of("src/test/resources/pfor-delta-merged-segments-index");
+
+    static {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory.toString())
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .postingsOutputStreamFactory(PForDeltaEncodedOutputStream::new)
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .build();
+        indexer.index(documents.subList(0, 2), new DefaultTokenizer());
+        for (int i = 2; i < documents.size(); i++)
+            indexer.append(documents.subList(i, i + 1), new DefaultTokenizer());
+        try (SegmentMerger merger = SegmentMerger.builder(directory)
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .postingsOutputStreamFactory(PForDeltaEncodedOutputStream::new)
+                .postingsInputStreamFactory(PForDeltaEncodedInputStream::new)
+                .inBlockFactory(TfAwareInBlock::new, 2)
+                .mergeFactor(2)
+                .build()) {
+            merger.maybeMerge();
+        }
+    }
+
+    public PForDeltaMergedSegmentsOnDiskInvertedIndexTest() {
+        super(TfAwareOnDiskInvertedIndex.builder(directory)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .postingsInputStreamFactory(PForDeltaEncodedInputStream::new)
+                .build());
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testGetEntries(String term, List<TfAwareIndex.Entry> expected) {
+        assertEquals(expected, searchStructure.getEntries(term));
+    }
+
+    public static Stream<Arguments> testGetEntries() {
+        return Stream.of(
+                Arguments.of("a", List.of(ofT(0, 2), ofT(1, 2), ofT(2, 1))),
+                Arguments.of("b", List.of(ofT(2, 1), ofT(3, 1))),
+                Arguments.of("f", List.of(ofT(0, 1), ofT(2, 1), ofT(4, 2))),
+                Arguments.of("h", List.of(ofT(0, 2), ofT(1, 3), ofT(2, 1), ofT(3, 1), ofT(4, 2))),
+                Arguments.of("invalid", List.of())
+        );
+    }
+}
@@ -0,0 +1,63 @@
+package structure.document.indexes;
+
+import encoders.VBEncodedInputStream;
+import encoders.VBEncodedOutputStream;
+import org.junit.jupiter.api.Test;
+import structure.document.disk.OutBlock;
+import structure.document.disk.PositionalInBlock;
+import structure.document.disk.PositionalOnDiskInvertedIndex;
+import structure.document.disk.PositionalOutBlock;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TermDictionary;
+import tokenizer.DefaultTokenizer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class PositionalOnDiskInvertedIndexTest extends BasePositionalIndexTest<PositionalOnDiskInvertedIndex> {
+
+    private final static Path directory = Path.of("src/test/resources/positional-index");
+
+    static {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory.toString())
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .inBlockFactory(PositionalInBlock::new)
+                .outBlockFactory(PositionalOutBlock::new)
+                .blockMemoryBudget(1)
+                .build();
+        indexer.index(documents, new DefaultTokenizer());
+    }
+
+    public PositionalOnDiskInvertedIndexTest() {
+        super(PositionalOnDiskInvertedIndex.builder(directory)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .build());
+    }
+
+    // terms added without positions take the next position of their zone
+    @Test
+    public void testAddsAtRunningPositions() {
+        TermDictionary dictionary = new TermDictionary();
+        int a = dictionary.id("a");
+        int b = dictionary.id("b");
+        OutBlock running = new PositionalOutBlock(2);
+        OutBlock positioned = new PositionalOutBlock(2);
+        int[][] zones = {{a, b, a}, {b}, {a, a}};
+        for (int id = 0; id < zones.length; id++) {
+            for (int position = 0; position < zones[id].length; position++) {
+                running.add(zones[id][position], id);
+                positioned.add(zones[id][position], id, position);
+            }
+        }
+        assertArrayEquals(flush(positioned, dictionary), flush(running, dictionary));
+    }
+
+    private static byte[] flush(OutBlock block, TermDictionary dictionary) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        block.flush(new VBEncodedOutputStream(bytes), dictionary);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,105 @@
+package structure.document.indexes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import structure.document.TfAwareIndex;
+import structure.document.disk.DefaultOnDiskInvertedIndex;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TfAwareInBlock;
+import structure.document.disk.TfAwareOnDiskInvertedIndex;
+import structure.document.disk.TfAwarePackedOutBlock;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static utils.MocksFactory.ofT;
+
+public class SegmentedOnDiskInvertedIndexTest extends BaseIndexTest<TfAwareOnDiskInvertedIndex> {
+
+    private final static Path directory = Path.of("src/test/resources/segmented-index");
+
+    static {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory.toString())
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .build();
+        indexer.index(documents.subList(0, 2), new DefaultTokenizer());
+        indexer.append(documents.subList(2, 4), new DefaultTokenizer());
+        indexer.append(documents.subList(4, 5), new DefaultTokenizer());
+    }
+
+    public SegmentedOnDiskInvertedIndexTest() {
+        super(TfAwareOnDiskInvertedIndex.builder(directory).build());
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testGetEntries(String term, List<TfAwareIndex.Entry> expected) {
+        assertEquals(expected, searchStructure.getEntries(term));
+    }
+
+    public static Stream<Arguments> testGetEntries() {
+        return Stream.of(
+                Arguments.of("a", List.of(ofT(0, 2), ofT(1, 2), ofT(2, 1))),
+                Arguments.of("b", List.of(ofT(2, 1), ofT(3, 1))),
+                Arguments.of("c", List.of(ofT(4, 1))),
+                Arguments.of("d", List.of(ofT(0, 2), ofT(4, 1))),
+                Arguments.of("h", List.of(ofT(0, 2), ofT(1, 3), ofT(2, 1), ofT(3, 1), ofT(4, 2))),
+                Arguments.of("invalid", List.of())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void testGetEntriesByTermId(int termId, List<TfAwareIndex.Entry> expected) {
+        assertEquals(expected, searchStructure.getEntries(termId));
+    }
+
+    public static Stream<Arguments> testGetEntriesByTermId() {
+        return Stream.of(
+                Arguments.of(0, List.of(ofT(0, 2), ofT(1, 2), ofT(2, 1))),
+                Arguments.of(2, List.of(ofT(4, 1))),
+                Arguments.of(7, List.of(ofT(0, 2), ofT(1, 3), ofT(2, 1), ofT(3, 1), ofT(4, 2))),
+                Arguments.of(9, List.of(ofT(2, 1)))
+        );
+    }
+
+    // the first append is held inside its inversion while the second one is made
+    @Test
+    public void testRejectsOverlappingAppend() throws Exception {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(Path.of("src/test/resources/overlapping-append-index")).build();
+        indexer.index(documents.subList(0, 2), new DefaultTokenizer());
+        CountDownLatch inverting = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        DefaultTokenizer blockingTokenizer = new DefaultTokenizer() {
+            @Override
+            public List<String> tokenize(String string) {
+                inverting.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.tokenize(string);
+            }
+        };
+        Thread append = new Thread(() -> indexer.append(documents.subList(2, 3), blockingTokenizer));
+        append.start();
+        inverting.await();
+        assertThrows(IllegalStateException.class, () -> indexer.append(documents.subList(3, 4), new DefaultTokenizer()));
+        assertThrows(IllegalStateException.class, () -> indexer.index(documents, new DefaultTokenizer()));
+        released.countDown();
+        append.join();
+        indexer.append(documents.subList(3, 5), new DefaultTokenizer());
+        try (DefaultOnDiskInvertedIndex index = DefaultOnDiskInvertedIndex.builder(Path.of("src/test/resources/overlapping-append-index")).build()) {
+            assertEquals(List.of(0, 1, 2, 3, 4), index.getDocumentIds("h"));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package structure.document.indexes;
+
+import document.Document;
+import encoders.GolombRiceEncodedInputStream;
+import encoders.GolombRiceEncodedOutputStream;
+import encoders.PForDeltaEncodedInputStream;
+import encoders.PForDeltaEncodedOutputStream;
+import encoders.Simple8bEncodedInputStream;
+import encoders.Simple8bEncodedOutputStream;
+import encoders.VBEncodedInputStream;
+import encoders.VBEncodedOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import structure.document.TfAwareIndex;
+import structure.document.disk.DefaultInBlock;
+import structure.document.disk.DefaultOnDiskInvertedIndex;
+import structure.document.disk.DefaultPackedOutBlock;
+import structure.document.disk.OnDiskInvertedIndex;
+import structure.document.disk.SPIMIIndexer;
+import structure.document.disk.TfAwareInBlock;
+import structure.document.disk.TfAwareOnDiskInvertedIndex;
+import structure.document.disk.TfAwarePackedOutBlock;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static utils.MocksFactory.of;
+import static utils.MocksFactory.ofT;
+
+// posting lists longer than the skip interval, split between two segments; the indexes are closed by JUnit
+public class SkipListOnDiskInvertedIndexTest {
+
+    private final static Path defaultDirectory = Path.of("src/test/resources/skip-list-index");
+    private final static Path tfAwareDirectory = Path.of("src/test/resources/skip-list-tf-aware-index");
+    private final static Path pForDeltaDirectory = Path.of("src/test/resources/skip-list-pfor-delta-index");
+    private final static Path golombRiceDirectory = Path.of("src/test/resources/skip-list-golomb-rice-index");
+    private final static Path simple8bDirectory = Path.of("src/test/resources/skip-list-simple-8b-index");
+    private final static int documentsCount = 1000;
+
+    static {
+        List<Document> documents = IntStream.range(0, documentsCount)
+                .mapToObj(i -> of("d" + i, (i % 2 == 0 ? "a a" : "a") + (i % 3 == 0 ? " b" : "") + (i % 250 == 7 ? " c" : "")))
+                .toList();
+        SPIMIIndexer defaultIndexer = SPIMIIndexer.builder(defaultDirectory)
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .inBlockFactory(DefaultInBlock::new)
+                .outBlockFactory(DefaultPackedOutBlock::new)
+                .build();
+        defaultIndexer.index(documents.subList(0, 600), new DefaultTokenizer());
+        defaultIndexer.append(documents.subList(600, documentsCount), new DefaultTokenizer());
+        SPIMIIndexer tfAwareIndexer = SPIMIIndexer.builder(tfAwareDirectory)
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .build();
+        tfAwareIndexer.index(documents.subList(0, 600), new DefaultTokenizer());
+        tfAwareIndexer.append(documents.subList(600, documentsCount), new DefaultTokenizer());
+        SPIMIIndexer pForDeltaIndexer = SPIMIIndexer.builder(pForDeltaDirectory)
+                .postingsOutputStreamFactory(PForDeltaEncodedOutputStream::new)
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .build();
+        pForDeltaIndexer.index(documents.subList(0, 600), new DefaultTokenizer());
+        pForDeltaIndexer.append(documents.subList(600, documentsCount), new DefaultTokenizer());
+        SPIMIIndexer simple8bIndexer = SPIMIIndexer.builder(simple8bDirectory)
+                .postingsOutputStreamFactory(Simple8bEncodedOutputStream::new)
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .build();
+        simple8bIndexer.index(documents.subList(0, 600), new DefaultTokenizer());
+        simple8bIndexer.append(documents.subList(600, documentsCount), new DefaultTokenizer());
+        // bit-level postings have no skip entries, so reads among ids decode the whole list
+        SPIMIIndexer golombRiceIndexer = SPIMIIndexer.builder(golombRiceDirectory)
+                .postingsOutputStreamFactory(GolombRiceEncodedOutputStream::new)
+                .inBlockFactory(TfAwareInBlock::new)
+                .outBlockFactory(TfAwarePackedOutBlock::new)
+                .build();
+        golombRiceIndexer.index(documents.subList(0, 600), new DefaultTokenizer());
+        golombRiceIndexer.append(documents.subList(600, documentsCount), new DefaultTokenizer());
+    }
+
+    public static Stream<Arguments> indexes() {
+        return Stream.of(false, true).flatMap(memoryMapped -> Stream.of(
+                Arguments.of(DefaultOnDiskInvertedIndex.builder(defaultDirectory)
+                        .encodedInputStreamFactory(VBEncodedInputStream::new)
+                        .memoryMapped(memoryMapped)
+                        .build()),
+                Arguments.of(TfAwareOnDiskInvertedIndex.builder(tfAwareDirectory)
+                        .memoryMapped(memoryMapped)
+                        .build()),
+                Arguments.of(TfAwareOnDiskInvertedIndex.builder(pForDeltaDirectory)
+                        .postingsInputStreamFactory(PForDeltaEncodedInputStream::new)
+                        .memoryMapped(memoryMapped)
+                        .build()),
+                Arguments.of(TfAwareOnDiskInvertedIndex.builder(simple8bDirectory)
+                        .postingsInputStreamFactory(Simple8bEncodedInputStream::new)
+                        .memoryMapped(memoryMapped)
+                        .build()),
+                Arguments.of(TfAwareOnDiskInvertedIndex.builder(golombRiceDirectory)
+                        .postingsInputStreamFactory(GolombRiceEncodedInputStream::new)
+                        .memoryMapped(memoryMapped)
+                        .build())
+        ));
+    }
+
+    private static List<Integer> ids(IntPredicate predicate) {
+        return IntStream.range(0, documentsCount).filter(predicate).boxed().toList();
+    }
+
+    @ParameterizedTest
+    @MethodSource("indexes")
+    public void testGetDocumentIds(OnDiskInvertedIndex index) {
+        assertEquals(ids(i -> true), index.getDocumentIds("a"));
+        assertEquals(ids(i -> i % 3 == 0), index.getDocumentIds("b"));
+        assertEquals(ids(i -> i % 250 == 7), index.getDocumentIds("c"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("indexes")
+    public void testGetDocumentIdsAmong(OnDiskInvertedIndex index) {
+        List<Integer> c = index.getDocumentIds("c");
+        assertEquals(c, index.getDocumentIds("a", c));
+        assertEquals(ids(i -> i % 3 == 0 && i % 250 == 7), index.getDocumentIds("b", c));
+        assertEquals(ids(i -> i % 250 == 7), index.getDocumentIds("c", index.getDocumentIds("a")));
+        List<Integer> among = List.of(0, 127, 128, 129, 255, 256, 599, 600, 601, 728, 999);
+        assertEquals(among, index.getDocumentIds("a", among));
+        assertEquals(among.stream().filter(i -> i % 3 == 0).toList(), index.getDocumentIds("b", among));
+        assertEquals(List.of(), index.getDocumentIds("invalid", among));
+        assertEquals(List.of(), index.getDocumentIds("a", List.of()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("indexes")
+    public void testGetDocumentIdsAmongSparse(OnDiskInvertedIndex index) {
+        List<Integer> among = ids(i -> i % 7 == 0);
+        for (String term : List.of("a", "b", "c")) {
+            List<Integer> ids = index.getDocumentIds(term);
+            assertEquals(among.stream().filter(ids::contains).toList(), index.getDocumentIds(term, among));
+        }
+    }
+
+    @Test
+    public void testGetEntries() {
+        try (TfAwareOnDiskInvertedIndex index = TfAwareOnDiskInvertedIndex.builder(tfAwareDirectory).build()) {
+            List<TfAwareIndex.Entry> expected = IntStream.range(0, documentsCount)
+                    .mapToObj(i -> ofT(i, i % 2 == 0 ? 2 : 1))
+                    .toList();
+            assertEquals(expected, index.getEntries("a"));
+        }
+    }
+}
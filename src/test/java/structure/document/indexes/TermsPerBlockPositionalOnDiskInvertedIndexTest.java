@@ -0,0 +1,34 @@
+package structure.document.indexes;
+
+import encoders.VBEncodedInputStream;
+import encoders.VBEncodedOutputStream;
+import structure.document.disk.PositionalInBlock;
+import structure.document.disk.PositionalOnDiskInvertedIndex;
+import structure.document.disk.PositionalOutBlock;
+import structure.document.disk.SPIMIIndexer;
+import tokenizer.DefaultTokenizer;
+
+import java.nio.file.Path;
+
+public class TermsPerBlockPositionalOnDiskInvertedIndexTest extends BasePositionalIndexTest<PositionalOnDiskInvertedIndex> {
+
+    private final static Path directory = Path.of("src/test/resources/terms-per-block-positional-index");
+
+    static {
+        SPIMIIndexer indexer = SPIMIIndexer.builder(directory.toString())
+                .encodedOutputStreamFactory(VBEncodedOutputStream::new)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .inBlockFactory(PositionalInBlock::new)
+                .outBlockFactory(PositionalOutBlock::new)
+                .blockMemoryBudget(1)
+                .termsPerBlock(3)
+                .build();
+        indexer.index(documents, new DefaultTokenizer());
+    }
+
+    public TermsPerBlockPositionalOnDiskInvertedIndexTest() {
+        super(PositionalOnDiskInvertedIndex.builder(directory)
+                .encodedInputStreamFactory(VBEncodedInputStream::new)
+                .build());
+    }
+}